@@ -0,0 +1,149 @@
+package fathertoast.crust.benchmark;
+
+import fathertoast.crust.api.config.common.AbstractConfigCategory;
+import fathertoast.crust.api.config.common.AbstractConfigFile;
+import fathertoast.crust.api.config.common.ConfigManager;
+import fathertoast.crust.api.config.common.field.*;
+import fathertoast.crust.api.config.common.value.*;
+import fathertoast.crust.api.config.common.value.environment.CrustEnvironmentRegistry;
+import fathertoast.crust.api.config.common.value.environment.biome.BiomeCategory;
+import net.minecraft.block.AbstractFurnaceBlock;
+import net.minecraft.block.Blocks;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.ai.attributes.Attribute;
+import net.minecraft.potion.Effect;
+import net.minecraft.potion.Effects;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Config file used by the benchmarks. This mirrors the contents of the test mod's config file, so benchmarks run
+ * against realistic list sizes, and adds a weighted list.
+ */
+public class BenchmarkConfigFile extends AbstractConfigFile {
+    
+    public final General GENERAL;
+    public final Environment ENVIRONMENT;
+    
+    /**
+     * Creates and loads a new benchmark config file in its own folder. This does not register the file with the
+     * file watcher, so saving the file while benchmarking does not cause it to reload.
+     */
+    public static BenchmarkConfigFile create( String path ) {
+        final BenchmarkConfigFile config = new BenchmarkConfigFile( BenchmarkSetup.createConfigManager( path ), "benchmark_config" );
+        config.SPEC.getNightConfig().load();
+        return config;
+    }
+    
+    /**
+     * @param cfgManager The config manager.
+     * @param cfgName    Name for the new config file. May include a file path (e.g. "folder/subfolder/filename").
+     */
+    BenchmarkConfigFile( ConfigManager cfgManager, String cfgName ) {
+        super( cfgManager, cfgName,
+                "Benchmark config file." );
+        
+        GENERAL = new General( this );
+        ENVIRONMENT = new Environment( this );
+        
+        SPEC.newLine( 2 );
+        SPEC.describeEnvironmentListPart2of2();
+    }
+    
+    /**
+     * Category for the list fields used by the benchmarks. Each has the same default value as the test config.
+     */
+    public static class General extends AbstractConfigCategory<BenchmarkConfigFile> {
+        
+        public final AttributeListField attributeListField;
+        public final BlockListField blockListField;
+        public final EntityListField entityListField;
+        public final EnvironmentListField environmentListField;
+        public final LazyRegistryEntryListField<Effect> lazyRegistryEntryListField;
+        public final WeightedList<WeightedValue> weightedList;
+        
+        General( BenchmarkConfigFile parent ) {
+            super( parent, "general", "Fields used by the benchmarks." );
+            
+            List<AttributeEntry> attributes = new ArrayList<>();
+            for( Attribute attribute : ForgeRegistries.ATTRIBUTES.getValues() )
+                attributes.add( AttributeEntry.mult( attribute, 1.0 ) );
+            attributeListField = SPEC.define( new AttributeListField( "attribute_list", new AttributeList( attributes ),
+                    (String[]) null ) );
+            blockListField = SPEC.define( new BlockListField( "block_list", new BlockList(
+                    new BlockEntry( Blocks.GRASS_BLOCK ),
+                    new BlockEntry( Blocks.FURNACE.defaultBlockState().setValue( AbstractFurnaceBlock.LIT, true ) ) ),
+                    (String[]) null ) );
+            entityListField = SPEC.define( new EntityListField( "entity_list", new EntityList(
+                    new EntityEntry( 0.0 ), new EntityEntry( EntityType.CREEPER, true, 1.0 ),
+                    new EntityEntry( EntityType.ZOMBIE, false, 2.0 )
+            ).setSingleValue().setRange( 0.0, 2.0 ),
+                    (String[]) null ) );
+            environmentListField = SPEC.define( new EnvironmentListField( "environment_list_field", new EnvironmentList(
+                    EnvironmentEntry.builder( SPEC, 0.0 ).belowSeaLevel().isRaining().build(),
+                    EnvironmentEntry.builder( SPEC, 1.0 ).aboveGoldLevel().isRaining().build(),
+                    EnvironmentEntry.builder( SPEC, 666.0 ).inBiomeCategory( BiomeCategory.FOREST ).build(),
+                    EnvironmentEntry.builder( SPEC, 20.0 ).afterMonthsOrApocalypseDifficulty( 1 ).build(),
+                    EnvironmentEntry.builder( SPEC, 6.9 ).inOverworld().build(),
+                    EnvironmentEntry.builder( SPEC, -1.0 ).build() )
+                    .setRange( DoubleField.Range.ANY ),
+                    (String[]) null ) );
+            lazyRegistryEntryListField = SPEC.define( new LazyRegistryEntryListField<>( "lazy_registry_entry_list",
+                    new LazyRegistryEntryList<>( ForgeRegistries.POTIONS, Effects.CONFUSION ),
+                    (String[]) null ) );
+            
+            SPEC.newLine();
+            
+            weightedList = new WeightedList<>( SPEC, "weighted_list", WeightedValue.values(),
+                    "A weighted list with a mix of common and rare values." );
+        }
+    }
+    
+    /**
+     * Category with one environment list field for each registered environment, as in the test config.
+     */
+    public static class Environment extends AbstractConfigCategory<BenchmarkConfigFile> {
+        
+        public final EnvironmentListField[] fields;
+        
+        Environment( BenchmarkConfigFile parent ) {
+            super( parent, "environments", "One environment list for each registered environment." );
+            
+            AbstractConfigField dummy = new BooleanField( "ignore_me", false, (String[]) null );
+            dummy.setSpec( SPEC );
+            
+            Set<String> environments = CrustEnvironmentRegistry.getNames();
+            fields = new EnvironmentListField[environments.size()];
+            int i = 0;
+            for( String env : environments ) {
+                fields[i++] = SPEC.define( new EnvironmentListField( env,
+                        new EnvironmentList( new EnvironmentEntry( 1.0,
+                                CrustEnvironmentRegistry.parse( dummy, env, "" ) ) ),
+                        (String[]) null ) );
+            }
+        }
+    }
+    
+    /** Values for the weighted list. Weights are uneven, like a typical spawn or loot table. */
+    public enum WeightedValue implements WeightedList.Value {
+        COMMON_0( 100 ), COMMON_1( 100 ), COMMON_2( 80 ), COMMON_3( 80 ),
+        UNCOMMON_0( 40 ), UNCOMMON_1( 40 ), UNCOMMON_2( 20 ), UNCOMMON_3( 20 ),
+        RARE_0( 5 ), RARE_1( 5 ), RARE_2( 2 ), RARE_3( 1 );
+        
+        private final int DEFAULT_WEIGHT;
+        
+        WeightedValue( int weight ) { DEFAULT_WEIGHT = weight; }
+        
+        /** @return Returns the unique key for this object. */
+        @Override
+        public String getKey() { return name().toLowerCase( Locale.ROOT ); }
+        
+        /** @return Returns the default weight for this object. */
+        @Override
+        public int getDefaultWeight() { return DEFAULT_WEIGHT; }
+    }
+}
\ No newline at end of file
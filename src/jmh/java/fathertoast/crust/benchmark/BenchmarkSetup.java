@@ -0,0 +1,47 @@
+package fathertoast.crust.benchmark;
+
+import fathertoast.crust.api.ICrustApi;
+import fathertoast.crust.api.config.common.ConfigManager;
+import fathertoast.crust.api.config.common.value.environment.compat.ApocalypseDifficultyEnvironment;
+import net.minecraft.util.registry.Bootstrap;
+import net.minecraftforge.fml.loading.FMLPaths;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Prepares the game's registries and Crust's config api for use outside the game. Each benchmark calls
+ * {@link #bootstrap()} from its setup method; only the first call does anything.
+ */
+public final class BenchmarkSetup {
+    
+    /** The game directory used while benchmarking. Config files are written inside this. */
+    private static Path gameDir;
+    
+    /** Loads the vanilla registries and points Forge's paths at a temporary game directory. */
+    public static synchronized void bootstrap() {
+        if( gameDir != null ) return;
+        try {
+            gameDir = Files.createTempDirectory( "crust-jmh" );
+        }
+        catch( IOException ex ) {
+            throw new UncheckedIOException( "Failed to create benchmark game directory!", ex );
+        }
+        FMLPaths.loadAbsolutePaths( gameDir );
+        Bootstrap.bootStrap();
+        
+        // Crust normally registers itself during mod loading; benchmarks run as if Apocalypse Rebooted is not installed
+        ApocalypseDifficultyEnvironment.register( () -> null );
+    }
+    
+    /** @return A new config manager that is not registered with Crust, operating out of the given folder in the game directory. */
+    public static ConfigManager createConfigManager( String path ) {
+        bootstrap();
+        return ConfigManager.createDetached( ICrustApi.MOD_ID, new File( gameDir.toFile(), "config/" + path + "/" ) );
+    }
+    
+    private BenchmarkSetup() { }
+}
\ No newline at end of file
@@ -0,0 +1,247 @@
+package fathertoast.crust.benchmark;
+
+import com.mojang.authlib.GameProfile;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentQueryCache;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.fluid.Fluid;
+import net.minecraft.item.crafting.RecipeManager;
+import net.minecraft.profiler.EmptyProfiler;
+import net.minecraft.scoreboard.Scoreboard;
+import net.minecraft.tags.ITagCollectionSupplier;
+import net.minecraft.tags.TagCollectionManager;
+import net.minecraft.util.Direction;
+import net.minecraft.util.RegistryKey;
+import net.minecraft.util.SoundCategory;
+import net.minecraft.util.SoundEvent;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.registry.DynamicRegistries;
+import net.minecraft.util.registry.Registry;
+import net.minecraft.world.*;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.biome.BiomeContainer;
+import net.minecraft.world.chunk.AbstractChunkProvider;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkStatus;
+import net.minecraft.world.chunk.IChunk;
+import net.minecraft.world.lighting.WorldLightManager;
+import net.minecraft.world.storage.MapData;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A minimal overworld for benchmarking outside the game. Every chunk is loaded (and empty), every position is in the
+ * same biome, and there are no players unless some are added. The time and weather can be set directly.
+ * <p>
+ * Note that this is not a server world, so conditions that need the dynamic registries simply fail (as they do on the
+ * client). Queries made in it are evaluated directly, unless {@link #simulateServerThread()} is called to make the
+ * calling thread take the same paths as the server thread (the query cache, shared contexts, world snapshots, and
+ * player indices).
+ */
+public class BenchmarkWorld extends World {
+    
+    /** The number of noise biome cells in each chunk (4x4 columns, 64 layers tall). */
+    private static final int BIOMES_PER_CHUNK = 1024;
+    
+    /** The dynamic registries shared by all benchmark worlds. Created on first use. */
+    @Nullable
+    private static DynamicRegistries registries;
+    
+    /** @return The dynamic registries shared by all benchmark worlds. */
+    private static synchronized DynamicRegistries getRegistries() {
+        if( registries == null ) {
+            BenchmarkSetup.bootstrap();
+            registries = DynamicRegistries.builtin();
+        }
+        return registries;
+    }
+    
+    /** The world info, which holds the time and weather. */
+    private final ClientWorld.ClientWorldInfo LEVEL_DATA;
+    /** The biome at every position in this world. */
+    private final Biome BIOME;
+    /** Provides this world's chunks. */
+    private final ChunkProvider CHUNK_SOURCE;
+    
+    /** The players in this world. */
+    private final List<PlayerEntity> PLAYERS = new ArrayList<>();
+    
+    private final Scoreboard SCOREBOARD = new Scoreboard();
+    private final RecipeManager RECIPE_MANAGER = new RecipeManager();
+    
+    /** Creates a new world where every position is in the given biome. */
+    public BenchmarkWorld( RegistryKey<Biome> biome ) {
+        this( new ClientWorld.ClientWorldInfo( Difficulty.NORMAL, false, false ), getRegistries(), biome );
+    }
+    
+    private BenchmarkWorld( ClientWorld.ClientWorldInfo levelData, DynamicRegistries registryAccess, RegistryKey<Biome> biome ) {
+        super( levelData, World.OVERWORLD,
+                registryAccess.registryOrThrow( Registry.DIMENSION_TYPE_REGISTRY ).getOrThrow( DimensionType.OVERWORLD_LOCATION ),
+                () -> EmptyProfiler.INSTANCE, false, false, 0L );
+        LEVEL_DATA = levelData;
+        BIOME = registryAccess.registryOrThrow( Registry.BIOME_REGISTRY ).getOrThrow( biome );
+        CHUNK_SOURCE = new ChunkProvider( this );
+    }
+    
+    /** Sets the world's game time and day time, in ticks. */
+    public void setTime( long gameTime, long dayTime ) {
+        LEVEL_DATA.setGameTime( gameTime );
+        LEVEL_DATA.setDayTime( dayTime );
+    }
+    
+    /** Advances the world's game time and day time by one tick. */
+    public void nextTick() { setTime( getGameTime() + 1L, dayTime() + 1L ); }
+    
+    /** Adds a player at the given position. */
+    public void addPlayer( double x, double y, double z ) {
+        final PlayerEntity player = new BenchmarkPlayer( this, PLAYERS.size() );
+        player.setPos( x, y, z );
+        PLAYERS.add( player );
+    }
+    
+    /**
+     * Makes queries in this world from the calling thread use the server-thread paths, until {@link #stopSimulating()}
+     * is called. Only one world can be simulated at a time.
+     */
+    public void simulateServerThread() { EnvironmentQueryCache.simulateServerThread( this ); }
+    
+    /** Stops any server-thread simulation started with {@link #simulateServerThread()}. */
+    public static void stopSimulating() { EnvironmentQueryCache.simulateServerThread( null ); }
+    
+    /** Sets whether it is raining in the world. */
+    public void setRaining( boolean raining ) {
+        LEVEL_DATA.setRaining( raining );
+        setRainLevel( raining ? 1.0F : 0.0F );
+    }
+    
+    @Override
+    public AbstractChunkProvider getChunkSource() { return CHUNK_SOURCE; }
+    
+    @Override
+    public Biome getUncachedNoiseBiome( int x, int y, int z ) { return BIOME; }
+    
+    @Override
+    public DynamicRegistries registryAccess() { return getRegistries(); }
+    
+    @Override
+    public List<? extends PlayerEntity> players() { return PLAYERS; }
+    
+    @Nullable
+    @Override
+    public Entity getEntity( int id ) { return null; }
+    
+    @Override
+    public ITickList<Block> getBlockTicks() { return EmptyTickList.empty(); }
+    
+    @Override
+    public ITickList<Fluid> getLiquidTicks() { return EmptyTickList.empty(); }
+    
+    @Override
+    public float getShade( Direction direction, boolean shade ) { return 1.0F; }
+    
+    @Override
+    public Scoreboard getScoreboard() { return SCOREBOARD; }
+    
+    @Override
+    public RecipeManager getRecipeManager() { return RECIPE_MANAGER; }
+    
+    @Override
+    public ITagCollectionSupplier getTagManager() { return TagCollectionManager.getInstance(); }
+    
+    @Nullable
+    @Override
+    public MapData getMapData( String id ) { return null; }
+    
+    @Override
+    public void setMapData( MapData data ) { }
+    
+    @Override
+    public int getFreeMapId() { return 0; }
+    
+    @Override
+    public void sendBlockUpdated( BlockPos pos, BlockState oldState, BlockState newState, int flags ) { }
+    
+    @Override
+    public void destroyBlockProgress( int breakerId, BlockPos pos, int progress ) { }
+    
+    @Override
+    public void levelEvent( @Nullable PlayerEntity player, int type, BlockPos pos, int data ) { }
+    
+    @Override
+    public void playSound( @Nullable PlayerEntity player, double x, double y, double z,
+                           SoundEvent sound, SoundCategory category, float volume, float pitch ) { }
+    
+    @Override
+    public void playSound( @Nullable PlayerEntity player, Entity entity, SoundEvent sound, SoundCategory category,
+                           float volume, float pitch ) { }
+    
+    /** A player that is never in creative or spectator mode. */
+    private static class BenchmarkPlayer extends PlayerEntity {
+        
+        BenchmarkPlayer( World world, int id ) {
+            super( world, BlockPos.ZERO, 0.0F, new GameProfile( new UUID( 0L, id ), "Benchmark" + id ) );
+        }
+        
+        @Override
+        public boolean isSpectator() { return false; }
+        
+        @Override
+        public boolean isCreative() { return false; }
+    }
+    
+    /** Provides empty chunks for every position, creating them the first time they are requested. */
+    private static class ChunkProvider extends AbstractChunkProvider {
+        
+        private final BenchmarkWorld WORLD;
+        /** The biome of every noise biome cell in a chunk. */
+        private final Biome[] BIOMES;
+        private final Long2ObjectMap<Chunk> CHUNKS = new Long2ObjectOpenHashMap<>();
+        private final WorldLightManager LIGHT_ENGINE;
+        
+        ChunkProvider( BenchmarkWorld world ) {
+            WORLD = world;
+            BIOMES = new Biome[BIOMES_PER_CHUNK];
+            Arrays.fill( BIOMES, world.BIOME );
+            LIGHT_ENGINE = new WorldLightManager( this, false, false );
+        }
+        
+        @Override
+        public synchronized IChunk getChunk( int x, int z, ChunkStatus status, boolean load ) {
+            final long key = ChunkPos.asLong( x, z );
+            Chunk chunk = CHUNKS.get( key );
+            if( chunk == null ) {
+                chunk = new Chunk( WORLD, new ChunkPos( x, z ), new BiomeContainer(
+                        WORLD.registryAccess().registryOrThrow( Registry.BIOME_REGISTRY ), BIOMES.clone() ) );
+                CHUNKS.put( key, chunk );
+            }
+            return chunk;
+        }
+        
+        @Nullable
+        @Override
+        public IBlockReader getChunkForLighting( int x, int z ) { return getChunkNow( x, z ); }
+        
+        @Override
+        public IBlockReader getLevel() { return WORLD; }
+        
+        @Override
+        public void tick( BooleanSupplier hasTimeLeft ) { }
+        
+        @Override
+        public String gatherStats() { return "BenchmarkChunkCache: " + CHUNKS.size(); }
+        
+        @Override
+        public WorldLightManager getLightEngine() { return LIGHT_ENGINE; }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+package fathertoast.crust.benchmark;
+
+import fathertoast.crust.api.config.common.value.BlockList;
+import net.minecraft.block.AbstractFurnaceBlock;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks block list matching. The list is the same as the test config's block list: one block with any state,
+ * and one block with a specific property value. The block states cover each kind of result.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class BlockListBenchmark {
+    
+    private BlockList list;
+    private BlockState[] states;
+    private int nextState;
+    
+    @Setup
+    public void setup() {
+        list = BenchmarkConfigFile.create( "block_list" ).GENERAL.blockListField.get();
+        
+        states = new BlockState[] {
+                Blocks.GRASS_BLOCK.defaultBlockState(), // Match, any state
+                Blocks.FURNACE.defaultBlockState().setValue( AbstractFurnaceBlock.LIT, true ), // Match, specific state
+                Blocks.FURNACE.defaultBlockState(), // Listed block, but not a matching state
+                Blocks.STONE.defaultBlockState(), // Not listed
+                Blocks.AIR.defaultBlockState() // Not listed
+        };
+    }
+    
+    /** @return The next block state to match, cycling through all block states. */
+    private BlockState nextState() {
+        final BlockState state = states[nextState];
+        nextState = (nextState + 1) % states.length;
+        return state;
+    }
+    
+    /** Checks whether the list matches a block state. */
+    @Benchmark
+    public boolean matches() { return list.matches( nextState() ); }
+}
\ No newline at end of file
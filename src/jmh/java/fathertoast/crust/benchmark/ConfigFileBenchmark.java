@@ -0,0 +1,35 @@
+package fathertoast.crust.benchmark;
+
+import com.electronwill.nightconfig.core.file.FileConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks reading and writing a whole config file. The file has the same contents as the test config, including
+ * an environment list for every registered environment and the verbose environment descriptions.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class ConfigFileBenchmark {
+    
+    private FileConfig file;
+    
+    @Setup
+    public void setup() {
+        file = BenchmarkConfigFile.create( "config_file" ).SPEC.getNightConfig();
+        file.save(); // Make sure the file is fully written before measuring loads
+    }
+    
+    /** Parses the file and updates every field from it. */
+    @Benchmark
+    public void load() { file.load(); }
+    
+    /** Writes every field to the file. */
+    @Benchmark
+    public void save() { file.save(); }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package fathertoast.crust.benchmark;
+
+import fathertoast.crust.api.config.common.value.EntityList;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.world.biome.Biomes;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks entity list lookups. The list is the same as the test config's entity list: a default entry, an
+ * extendable entry, and a specific entry. The entities cover each kind of match (specific, extended, and default).
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class EntityListBenchmark {
+    
+    private EntityList list;
+    private Entity[] entities;
+    private int nextEntity;
+    
+    @Setup
+    public void setup() {
+        list = BenchmarkConfigFile.create( "entity_list" ).GENERAL.entityListField.get();
+        
+        final BenchmarkWorld world = new BenchmarkWorld( Biomes.PLAINS );
+        entities = new Entity[] {
+                EntityType.ZOMBIE.create( world ), // Specific entry
+                EntityType.HUSK.create( world ), // Default entry (the zombie entry does not extend)
+                EntityType.CREEPER.create( world ), // Extendable entry
+                EntityType.SKELETON.create( world ), // Default entry
+                EntityType.PIG.create( world ) // Default entry
+        };
+        
+        // Make sure the entry classes are loaded before measuring
+        for( Entity entity : entities ) list.getValues( entity );
+    }
+    
+    /** @return The next entity to look up, cycling through all entities. */
+    private Entity nextEntity() {
+        final Entity entity = entities[nextEntity];
+        nextEntity = (nextEntity + 1) % entities.length;
+        return entity;
+    }
+    
+    /** Looks up the best-match values for an entity. */
+    @Benchmark
+    public double[] getValues() { return list.getValues( nextEntity() ); }
+    
+    /** Checks whether the list contains an entity. */
+    @Benchmark
+    public boolean contains() { return list.contains( nextEntity() ); }
+}
\ No newline at end of file
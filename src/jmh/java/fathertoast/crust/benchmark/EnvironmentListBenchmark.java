@@ -0,0 +1,119 @@
+package fathertoast.crust.benchmark;
+
+import fathertoast.crust.api.config.common.field.EnvironmentListField;
+import fathertoast.crust.api.config.common.value.EnvironmentList;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.biome.Biomes;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks environment list lookups. The list is the same as the test config's environment list, which has a mix
+ * of world-, biome-, and position-level conditions and ends with an unconditional entry.
+ * <p>
+ * With {@link #serverThread} set, the benchmark world simulates being queried from the server thread, so lookups go
+ * through the per-tick query cache, the shared context, world-level filters, and the world snapshot. Otherwise, this
+ * measures direct evaluation, as done on the client or off the server thread. Run with the gc profiler to check the
+ * allocation rate of each path.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class EnvironmentListBenchmark {
+    
+    /** The number of positions queried, spread over a 4x4 chunk area. */
+    private static final int POSITIONS = 256;
+    
+    /** Whether it is raining, which decides whether the first two entries can match. */
+    @Param( { "false", "true" } )
+    public boolean raining;
+    
+    /** Whether lookups take the server-thread paths. */
+    @Param( { "false", "true" } )
+    public boolean serverThread;
+    
+    private BenchmarkWorld world;
+    private EnvironmentList list;
+    private EnvironmentListField[] singleEnvironmentFields;
+    
+    private BlockPos[] positions;
+    private long[] packedPositions;
+    private double[] results;
+    private int nextPos;
+    
+    @Setup
+    public void setup() {
+        final BenchmarkConfigFile config = BenchmarkConfigFile.create( "environment_list" );
+        list = config.GENERAL.environmentListField.get();
+        singleEnvironmentFields = config.ENVIRONMENT.fields;
+        
+        world = new BenchmarkWorld( Biomes.FOREST );
+        world.setTime( 24_000L * 10, 24_000L * 10 + 6_000L );
+        world.setRaining( raining );
+        if( serverThread ) world.simulateServerThread();
+        
+        final Random random = new Random( 0L );
+        positions = new BlockPos[POSITIONS];
+        packedPositions = new long[POSITIONS];
+        results = new double[POSITIONS];
+        for( int i = 0; i < POSITIONS; i++ ) {
+            positions[i] = new BlockPos( random.nextInt( 64 ), random.nextInt( 128 ), random.nextInt( 64 ) );
+            packedPositions[i] = positions[i].asLong();
+        }
+    }
+    
+    @TearDown
+    public void tearDown() { BenchmarkWorld.stopSimulating(); }
+    
+    /** @return The next position to query, cycling through all positions. */
+    private BlockPos nextPos() {
+        final BlockPos pos = positions[nextPos];
+        nextPos = (nextPos + 1) % POSITIONS;
+        return pos;
+    }
+    
+    /** A single primitive lookup at a position. */
+    @Benchmark
+    public double getAsDouble() { return list.getAsDouble( world, nextPos() ); }
+    
+    /** A single boxed lookup at a position, for comparison with the primitive lookup. */
+    @Benchmark
+    public Double getBoxed() { return list.get( world, nextPos() ); }
+    
+    /** A single lookup without a position. */
+    @Benchmark
+    public double getAsDoubleNoPos() { return list.getAsDouble( world ); }
+    
+    /** A batch lookup of every position. */
+    @Benchmark
+    public double[] getAll() {
+        list.getAll( world, packedPositions, Double.NaN, results );
+        return results;
+    }
+    
+    /**
+     * A batch lookup of every position on a new tick each time, so no results are kept from the last batch except
+     * world-level results that are still valid.
+     */
+    @Benchmark
+    public double[] getAllNextTick() {
+        world.nextTick();
+        list.getAll( world, packedPositions, Double.NaN, results );
+        return results;
+    }
+    
+    /** One lookup at a position in each of the test config's single-environment lists. */
+    @Benchmark
+    public void eachEnvironment( Blackhole blackhole ) {
+        final BlockPos pos = nextPos();
+        for( EnvironmentListField field : singleEnvironmentFields ) {
+            blackhole.consume( field.getAsDouble( world, pos ) );
+        }
+    }
+}
\ No newline at end of file
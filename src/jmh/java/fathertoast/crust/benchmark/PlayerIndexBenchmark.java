@@ -0,0 +1,91 @@
+package fathertoast.crust.benchmark;
+
+import fathertoast.crust.api.lib.PlayerIndex;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.world.biome.Biomes;
+import org.openjdk.jmh.annotations.*;
+
+import javax.annotation.Nullable;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks nearest-player lookups through the player index against the world's own linear search. The benchmark
+ * world simulates being queried from the server thread, so the index is kept and only rebuilt once per tick.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class PlayerIndexBenchmark {
+    
+    /** The number of positions queried, spread over the same area as the players. */
+    private static final int POSITIONS = 256;
+    /** The width of the square area the players and positions are spread over, in blocks. */
+    private static final int AREA = 2048;
+    /** The maximum distance searched, in blocks. */
+    private static final double RANGE = 128.0;
+    
+    /** The number of players in the world. */
+    @Param( { "1", "8", "64" } )
+    public int players;
+    
+    private BenchmarkWorld world;
+    private double[] posX, posY, posZ;
+    private int nextPos;
+    
+    @Setup
+    public void setup() {
+        world = new BenchmarkWorld( Biomes.PLAINS );
+        world.simulateServerThread();
+        
+        final Random random = new Random( 0L );
+        for( int i = 0; i < players; i++ ) {
+            world.addPlayer( random.nextInt( AREA ), 64.0, random.nextInt( AREA ) );
+        }
+        posX = new double[POSITIONS];
+        posY = new double[POSITIONS];
+        posZ = new double[POSITIONS];
+        for( int i = 0; i < POSITIONS; i++ ) {
+            posX[i] = random.nextInt( AREA );
+            posY[i] = random.nextInt( 128 );
+            posZ[i] = random.nextInt( AREA );
+        }
+    }
+    
+    @TearDown
+    public void tearDown() { BenchmarkWorld.stopSimulating(); }
+    
+    /** @return The index of the next position to query, cycling through all positions. */
+    private int nextPos() {
+        final int i = nextPos;
+        nextPos = (nextPos + 1) % POSITIONS;
+        return i;
+    }
+    
+    /** A nearest-player lookup through the kept player index. */
+    @Nullable
+    @Benchmark
+    public PlayerEntity indexed() {
+        final int i = nextPos();
+        return PlayerIndex.of( world ).getNearestPlayer( posX[i], posY[i], posZ[i], RANGE );
+    }
+    
+    /** A nearest-player lookup on a new tick each time, so the index is rebuilt for every lookup. */
+    @Nullable
+    @Benchmark
+    public PlayerEntity indexedNextTick() {
+        world.nextTick();
+        return indexed();
+    }
+    
+    /** A nearest-player lookup with the world's own search, for comparison. */
+    @Nullable
+    @Benchmark
+    public PlayerEntity linear() {
+        final int i = nextPos();
+        return world.getNearestPlayer( posX[i], posY[i], posZ[i], RANGE, false );
+    }
+}
\ No newline at end of file
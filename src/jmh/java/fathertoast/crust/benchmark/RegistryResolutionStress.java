@@ -0,0 +1,166 @@
+package fathertoast.crust.benchmark;
+
+import fathertoast.crust.api.config.common.field.AbstractConfigField;
+import fathertoast.crust.api.config.common.field.BooleanField;
+import fathertoast.crust.api.config.common.value.AttributeEntry;
+import fathertoast.crust.api.config.common.value.EntityEntry;
+import fathertoast.crust.api.config.common.value.EntityList;
+import fathertoast.crust.api.config.common.value.LazyRegistryEntryList;
+import fathertoast.crust.api.config.common.value.environment.position.StructureEnvironment;
+import fathertoast.crust.api.config.common.value.environment.position.StructureGroupEnvironment;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.ai.attributes.AttributeModifierMap;
+import net.minecraft.entity.ai.attributes.Attributes;
+import net.minecraft.potion.Effect;
+import net.minecraft.potion.Effects;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.world.biome.Biomes;
+import net.minecraft.world.gen.feature.structure.Structure;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A stress test for the lazy registry lookups done by environments and list entries. Each round creates fresh,
+ * unresolved objects and releases every thread at them at once, so the threads race to resolve them. Every thread
+ * checks that it got exactly the same results as a single thread would.
+ * <p>
+ * Run with the 'registryStress' Gradle task. Exits with a non-zero status if any thread got a wrong result.
+ * Dynamic registry environments need a running server, so they are not covered here.
+ */
+public final class RegistryResolutionStress {
+    
+    /** The number of times the objects are recreated and raced over. */
+    private static final int ROUNDS = 2000;
+    
+    /** Used to report errors. Never loaded into a config file. */
+    private static AbstractConfigField field;
+    
+    /** The entities looked up in the entity list, and the values each should get. */
+    private static Entity[] entities;
+    private static final double[] EXPECTED_VALUES = { 1.0, 0.0, 2.0, 0.0 };
+    /** The number of structures in the vanilla namespace. */
+    private static int expectedStructures;
+    
+    /** The objects being raced over in the current round. Replaced between rounds, while all threads are waiting. */
+    private static volatile Round round;
+    
+    private static final AtomicInteger FAILURES = new AtomicInteger();
+    
+    public static void main( String[] args ) throws InterruptedException {
+        BenchmarkSetup.bootstrap();
+        field = new BooleanField( "registry_stress", false, (String[]) null );
+        
+        final BenchmarkWorld world = new BenchmarkWorld( Biomes.PLAINS );
+        entities = new Entity[] {
+                EntityType.ZOMBIE.create( world ), // Specific entry
+                EntityType.HUSK.create( world ), // Default entry (the zombie entry does not extend)
+                EntityType.CREEPER.create( world ), // Extendable entry
+                EntityType.PIG.create( world ) // Default entry
+        };
+        for( ResourceLocation regKey : ForgeRegistries.STRUCTURE_FEATURES.getKeys() ) {
+            if( regKey.getNamespace().equals( "minecraft" ) ) expectedStructures++;
+        }
+        
+        final int threadCount = Math.max( 4, Runtime.getRuntime().availableProcessors() );
+        final CyclicBarrier barrier = new CyclicBarrier( threadCount, () -> round = new Round() );
+        
+        final List<Thread> threads = new ArrayList<>();
+        for( int i = 0; i < threadCount; i++ ) {
+            final Thread thread = new Thread( () -> runThread( barrier ), "Registry Stress #" + i );
+            threads.add( thread );
+            thread.start();
+        }
+        for( Thread thread : threads ) thread.join();
+        
+        System.out.println( "Ran " + ROUNDS + " rounds on " + threadCount + " threads; " + FAILURES.get() + " failures" );
+        System.exit( FAILURES.get() == 0 ? 0 : 1 );
+    }
+    
+    /** Runs all rounds on the current thread. */
+    private static void runThread( CyclicBarrier barrier ) {
+        try {
+            for( int i = 0; i < ROUNDS; i++ ) {
+                barrier.await(); // Sets up the next round once all threads are waiting
+                try {
+                    round.check();
+                }
+                catch( RuntimeException ex ) {
+                    fail( "threw " + ex );
+                    ex.printStackTrace();
+                }
+            }
+        }
+        catch( InterruptedException | BrokenBarrierException ex ) {
+            fail( "was interrupted" );
+        }
+    }
+    
+    /** Records a wrong result. */
+    private static void fail( String message ) {
+        FAILURES.incrementAndGet();
+        System.err.println( Thread.currentThread().getName() + " " + message );
+    }
+    
+    /** The objects raced over in a single round. */
+    private static final class Round {
+        
+        final StructureProbe STRUCTURE = new StructureProbe( field, "minecraft:village" );
+        final StructureGroupProbe STRUCTURE_GROUP = new StructureGroupProbe( field, "minecraft:*" );
+        final EntityList ENTITY_LIST = new EntityList(
+                new EntityEntry( field, null, true, 0.0 ),
+                new EntityEntry( field, EntityType.ZOMBIE.getRegistryName(), false, 1.0 ),
+                new EntityEntry( field, EntityType.CREEPER.getRegistryName(), true, 2.0 ) );
+        final AttributeEntry ATTRIBUTE = new AttributeEntry( field, Attributes.MAX_HEALTH.getRegistryName(), false, 1.0 );
+        final LazyRegistryEntryList<Effect> EFFECTS = new LazyRegistryEntryList<>( ForgeRegistries.POTIONS,
+                "minecraft:speed", "minecraft:regeneration" );
+        
+        /** Checks that every object gives the expected results on the current thread. */
+        void check() {
+            if( STRUCTURE.entry() != Structure.VILLAGE ) fail( "got wrong structure " + STRUCTURE.entry() );
+            
+            if( STRUCTURE_GROUP.size() != expectedStructures ) fail( "got " + STRUCTURE_GROUP.size() + " structures" );
+            if( !STRUCTURE_GROUP.contains( Structure.VILLAGE ) ) fail( "did not find structure in group" );
+            
+            for( int i = 0; i < entities.length; i++ ) {
+                final double value = ENTITY_LIST.getValue( entities[i] );
+                if( value != EXPECTED_VALUES[i] ) fail( "got " + value + " for " + entities[i].getType() );
+            }
+            
+            final AttributeModifierMap.MutableAttribute builder = AttributeModifierMap.builder().add( Attributes.MAX_HEALTH, 10.0 );
+            ATTRIBUTE.apply( builder );
+            final double health = builder.build().getBaseValue( Attributes.MAX_HEALTH );
+            if( health != 11.0 ) fail( "got " + health + " max health" );
+            
+            if( EFFECTS.getEntries().size() != 2 ) fail( "got " + EFFECTS.getEntries().size() + " effects" );
+            if( !EFFECTS.contains( Effects.MOVEMENT_SPEED ) || !EFFECTS.contains( Effects.REGENERATION ) ) {
+                fail( "did not find effects in list" );
+            }
+        }
+    }
+    
+    /** Exposes the structure environment's registry lookup. */
+    private static final class StructureProbe extends StructureEnvironment {
+        StructureProbe( AbstractConfigField field, String line ) { super( field, line ); }
+        
+        @Nullable
+        Structure<?> entry() { return getRegistryEntry(); }
+    }
+    
+    /** Exposes the structure group environment's registry lookups. */
+    private static final class StructureGroupProbe extends StructureGroupEnvironment {
+        StructureGroupProbe( AbstractConfigField field, String line ) { super( field, line ); }
+        
+        int size() { return getRegistryEntries().size(); }
+        
+        boolean contains( Structure<?> structure ) { return containsRegistryEntry( structure ); }
+    }
+    
+    private RegistryResolutionStress() { }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package fathertoast.crust.benchmark;
+
+import fathertoast.crust.api.config.common.value.WeightedList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks rolling weighted list items. The list has a dozen items with uneven weights.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class WeightedListBenchmark {
+    
+    private WeightedList<BenchmarkConfigFile.WeightedValue> list;
+    private Random random;
+    
+    @Setup
+    public void setup() {
+        list = BenchmarkConfigFile.create( "weighted_list" ).GENERAL.weightedList;
+        random = new Random( 0L );
+    }
+    
+    /** Rolls a random item. */
+    @Benchmark
+    public BenchmarkConfigFile.WeightedValue next() { return list.next( random ); }
+}
\ No newline at end of file
@@ -22,6 +22,26 @@ public interface IDifficultyAccessor {
     /** @return The difficulty for the player nearest to a location, with a max search radius. */
     long getNearestPlayerDifficulty( World world, BlockPos origin, double searchRadius );
     
+    /**
+     * @return The lowest difficulty of any player in the world, or 0 if there are no players.
+     * By default, this checks each player in the world.
+     */
+    default long getLowestPlayerDifficulty( World world ) {
+        long lowest = Long.MAX_VALUE;
+        for( PlayerEntity player : world.players() ) lowest = Math.min( lowest, getPlayerDifficulty( player ) );
+        return lowest == Long.MAX_VALUE ? 0L : lowest;
+    }
+    
+    /**
+     * @return The highest difficulty of any player in the world, or 0 if there are no players.
+     * By default, this checks each player in the world.
+     */
+    default long getHighestPlayerDifficulty( World world ) {
+        long highest = Long.MIN_VALUE;
+        for( PlayerEntity player : world.players() ) highest = Math.max( highest, getPlayerDifficulty( player ) );
+        return highest == Long.MIN_VALUE ? 0L : highest;
+    }
+    
     /** @return The max difficulty for a player. */
     long getMaxPlayerDifficulty( PlayerEntity player );
     
@@ -1,5 +1,7 @@
 package fathertoast.crust.api.config.common;
 
+import fathertoast.crust.api.config.common.value.environment.AbstractEnvironment;
+import fathertoast.crust.api.config.common.value.environment.WorldStateSnapshot;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.AddReloadListenerEvent;
 import net.minecraftforge.fml.ModLoadingContext;
@@ -8,6 +10,8 @@ import net.minecraftforge.fml.loading.FMLPaths;
 import javax.annotation.Nullable;
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Used as the hub for config access.
@@ -27,7 +31,7 @@ public final class ConfigManager {
      * @throws IllegalStateException If your mod has already created a config manager.
      */
     public static ConfigManager create( String path ) {
-        return register( new ConfigManager( new File( FMLPaths.CONFIGDIR.get().toFile(), path + "/" ) ) );
+        return register( new ConfigManager( getActiveModId(), new File( FMLPaths.CONFIGDIR.get().toFile(), path + "/" ) ) );
     }
     
     /**
@@ -38,9 +42,19 @@ public final class ConfigManager {
      * @throws IllegalStateException If your mod has already created a config manager.
      */
     public static ConfigManager createSimple() {
-        return register( new ConfigManager( FMLPaths.CONFIGDIR.get().toFile() ) );
+        return register( new ConfigManager( getActiveModId(), FMLPaths.CONFIGDIR.get().toFile() ) );
     }
     
+    /**
+     * INTERNAL METHOD. Creates a config manager that is not registered with Crust and does not need a mod loading context.
+     * This is only intended for loading config files outside the game, such as in benchmarks.
+     *
+     * @param modId     The id to use as the owner of the new config manager.
+     * @param configDir The folder the new config manager will use for its config files.
+     * @return The new config manager.
+     */
+    public static ConfigManager createDetached( String modId, File configDir ) { return new ConfigManager( modId, configDir ); }
+    
     /**
      * Gets the config manager for a particular mod, if it has one.
      *
@@ -88,7 +102,20 @@ public final class ConfigManager {
     public List<AbstractConfigFile> getConfigs() { return Collections.unmodifiableList( configs ); }
     
     /** @return The current "version" of the dynamic registries. This is incremented each time resources are loaded. */
-    public byte getDynamicRegVersion() { return dynamicRegVersion; }
+    public int getDynamicRegVersion() { return dynamicRegVersion.get(); }
+    
+    /**
+     * @return The shared instance of the given environment condition. Identical conditions (same name and value) parsed
+     * from any of this manager's config files are merged into one instance, so they are only resolved once and their
+     * results can be shared by every environment list using them. Safe to call from any thread.
+     */
+    public AbstractEnvironment internCondition( AbstractEnvironment condition ) {
+        final AbstractEnvironment interned = internedConditions.putIfAbsent( condition.toString(), condition );
+        return interned == null ? condition : interned;
+    }
+    
+    /** @return The number of unique environment conditions parsed from this manager's config files. */
+    public int getInternedConditionCount() { return internedConditions.size(); }
     
     
     // ---- Internal Methods ---- //
@@ -115,15 +142,23 @@ public final class ConfigManager {
     /** The config files this manages. */
     private final List<AbstractConfigFile> configs = new ArrayList<>();
     
-    /** The current "version" of the dynamic registries. */
-    private byte dynamicRegVersion;
+    /** The current "version" of the dynamic registries. Read from any thread that queries dynamic registry entries. */
+    private final AtomicInteger dynamicRegVersion = new AtomicInteger();
     
-    private ConfigManager( File configDir ) {
-        MOD_ID = ModLoadingContext.get().getActiveNamespace();
-        DIR = configDir;
-        
-        if( MOD_ID.equals( "minecraft" ) )
+    /** The shared instance of each unique environment condition, by its string representation. */
+    private final Map<String, AbstractEnvironment> internedConditions = new ConcurrentHashMap<>();
+    
+    /** @return The id of the mod currently being loaded. */
+    private static String getActiveModId() {
+        final String modId = ModLoadingContext.get().getActiveNamespace();
+        if( modId.equals( "minecraft" ) )
             throw new IllegalStateException( "Attempted to create config manager from invalid mod loading context!" );
+        return modId;
+    }
+    
+    private ConfigManager( String modId, File configDir ) {
+        MOD_ID = modId;
+        DIR = configDir;
         
         MinecraftForge.EVENT_BUS.addListener( this::onResourceReload );
     }
@@ -132,5 +167,8 @@ public final class ConfigManager {
     void register( AbstractConfigFile cfg ) { configs.add( cfg ); }
     
     /** Called each time resources are loaded. */
-    private void onResourceReload( AddReloadListenerEvent event ) { dynamicRegVersion++; }
+    private void onResourceReload( AddReloadListenerEvent event ) {
+        dynamicRegVersion.incrementAndGet();
+        WorldStateSnapshot.invalidateAll(); // Remembered world-level results may depend on the old registries
+    }
 }
\ No newline at end of file
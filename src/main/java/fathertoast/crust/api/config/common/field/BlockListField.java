@@ -70,7 +70,15 @@ public class BlockListField extends GenericField<BlockList> {
     public boolean isEmpty() { return get().isEmpty(); }
     
     /** @return Returns true if the block is contained in this list. */
-    public boolean matches( BlockState blockState ) { return get().matches( blockState ); }
+    public boolean matches( BlockState blockState ) {
+        if( FieldProfiler.isEnabled() ) {
+            final long start = System.nanoTime();
+            final int index = get().getMatchIndex( blockState );
+            FieldProfiler.record( this, System.nanoTime() - start, 0L, index );
+            return index >= 0;
+        }
+        return get().matches( blockState );
+    }
     
     /**
      * Represents two block list fields, a blacklist and a whitelist, combined into one.
@@ -93,7 +101,7 @@ public class BlockListField extends GenericField<BlockList> {
         
         /** @return Returns true if the block is contained in this list. */
         public boolean matches( BlockState blockState ) {
-            return !BLACKLIST.get().matches( blockState ) && WHITELIST.get().matches( blockState );
+            return !BLACKLIST.matches( blockState ) && WHITELIST.matches( blockState );
         }
     }
 }
\ No newline at end of file
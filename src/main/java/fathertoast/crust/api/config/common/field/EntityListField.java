@@ -5,12 +5,17 @@ import fathertoast.crust.api.config.common.file.TomlHelper;
 import fathertoast.crust.api.config.common.value.EntityEntry;
 import fathertoast.crust.api.config.common.value.EntityList;
 import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.util.ResourceLocation;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ObjDoubleConsumer;
 
 /**
  * Represents a config field with an entity list value.
@@ -210,14 +215,23 @@ public class EntityListField extends GenericField<EntityList> {
     // Convenience methods
     
     /** @return True if the entity is contained in this list. */
-    public boolean contains( @Nullable Entity entity ) { return get().contains( entity ); }
+    public boolean contains( @Nullable Entity entity ) {
+        if( FieldProfiler.isEnabled() ) return profiledGetMatchIndex( entity ) >= 0;
+        return get().contains( entity );
+    }
     
     /**
      * @param entity The entity to retrieve values for.
      * @return The array of values of the best-match entry. Returns null if the entity is not contained in this entity list.
      */
     @Nullable
-    public double[] getValues( @Nullable Entity entity ) { return get().getValues( entity ); }
+    public double[] getValues( @Nullable Entity entity ) {
+        if( FieldProfiler.isEnabled() ) {
+            final int index = profiledGetMatchIndex( entity );
+            return index < 0 ? null : get().getEntryValues( index );
+        }
+        return get().getValues( entity );
+    }
     
     /**
      * @param entity The entity to retrieve a value for.
@@ -226,7 +240,13 @@ public class EntityListField extends GenericField<EntityList> {
      * @see EntityList#setSingleValue()
      * @see EntityList#setSinglePercent()
      */
-    public double getValue( @Nullable Entity entity ) { return get().getValue( entity ); }
+    public double getValue( @Nullable Entity entity ) {
+        if( FieldProfiler.isEnabled() ) {
+            final double[] values = getValues( entity );
+            return values == null || values.length < 1 ? 0.0 : values[0];
+        }
+        return get().getValue( entity );
+    }
     
     /**
      * @param entity The entity to roll a value for.
@@ -234,7 +254,41 @@ public class EntityListField extends GenericField<EntityList> {
      * is not contained in this entity list or has no values specified. This should only be used for 'single percent' lists.
      * @see EntityList#setSinglePercent()
      */
-    public boolean rollChance( @Nullable LivingEntity entity ) { return get().rollChance( entity ); }
+    public boolean rollChance( @Nullable LivingEntity entity ) {
+        if( FieldProfiler.isEnabled() ) {
+            // Same as the list's roll, so profiling doesn't change how the entity's random numbers are used
+            return !get().isEmpty() && entity != null && entity.getRandom().nextDouble() < getValue( entity );
+        }
+        return get().rollChance( entity );
+    }
+    
+    /**
+     * Passes each entity contained in this list to the action, along with the first value in its best-match entry.
+     * Not recorded by the field profiler.
+     *
+     * @see EntityList#forEachMatching(Iterable, ObjDoubleConsumer)
+     */
+    public <T extends Entity> void forEachMatching( Iterable<T> entities, ObjDoubleConsumer<? super T> action ) {
+        get().forEachMatching( entities, action );
+    }
+    
+    /**
+     * Passes each entity contained in this list to the action, along with the first value in its best-match entry.
+     * Large collections are split across threads. Not recorded by the field profiler.
+     *
+     * @see EntityList#forEachMatchingParallel(Collection, ObjDoubleConsumer)
+     */
+    public <T extends Entity> void forEachMatchingParallel( Collection<T> entities, ObjDoubleConsumer<? super T> action ) {
+        get().forEachMatchingParallel( entities, action );
+    }
+    
+    /** @return The index of the best-match entry, or -1. Records the query with the profiler. */
+    private int profiledGetMatchIndex( @Nullable Entity entity ) {
+        final long start = System.nanoTime();
+        final int index = get().getMatchIndex( entity );
+        FieldProfiler.record( this, System.nanoTime() - start, 0L, index );
+        return index;
+    }
     
     /**
      * Represents two entity list fields, a blacklist and a whitelist, combined into one.
@@ -247,6 +301,9 @@ public class EntityListField extends GenericField<EntityList> {
         /** The blacklist. Entries present here are ignored entirely. */
         private final EntityListField BLACKLIST;
         
+        /** The merged results for the current whitelist and blacklist values. Replaced when either field is reloaded. */
+        private volatile Table table;
+        
         /** Links two lists together as blacklist and whitelist. */
         public Combined( EntityListField whitelist, EntityListField blacklist ) {
             WHITELIST = whitelist;
@@ -256,12 +313,24 @@ public class EntityListField extends GenericField<EntityList> {
             }
         }
         
+        /** @return The merged results for the current whitelist and blacklist values. */
+        private Table getTable() {
+            final EntityList whitelist = WHITELIST.get();
+            final EntityList blacklist = BLACKLIST.get();
+            Table current = table;
+            if( current == null || current.WHITELIST != whitelist || current.BLACKLIST != blacklist ) {
+                current = new Table( whitelist, blacklist );
+                table = current;
+            }
+            return current;
+        }
+        
         
         // Convenience methods
         
         /** @return True if the entity is contained in this list. */
         public boolean contains( @Nullable Entity entity ) {
-            return entity != null && !BLACKLIST.contains( entity ) && WHITELIST.contains( entity );
+            return entity != null && getMatchIndex( getTable(), entity ) >= 0;
         }
         
         /**
@@ -270,7 +339,23 @@ public class EntityListField extends GenericField<EntityList> {
          */
         @Nullable
         public double[] getValues( @Nullable Entity entity ) {
-            return entity != null && !BLACKLIST.contains( entity ) ? WHITELIST.getValues( entity ) : null;
+            if( entity == null ) return null;
+            final Table current = getTable();
+            final int index = getMatchIndex( current, entity );
+            return index < 0 ? null : current.WHITELIST.getEntryValues( index );
+        }
+        
+        /**
+         * @return The whitelist index of the best-match entry, -1 if not whitelisted, or {@link Table#BLACKLISTED}.
+         * When profiling, the query is recorded under the whitelist field, since the blacklist is no longer queried
+         * separately.
+         */
+        private int getMatchIndex( Table current, Entity entity ) {
+            if( !FieldProfiler.isEnabled() ) return current.getMatchIndex( entity );
+            final long start = System.nanoTime();
+            final int index = current.getMatchIndex( entity );
+            FieldProfiler.record( WHITELIST, System.nanoTime() - start, 0L, Math.max( index, -1 ) );
+            return index;
         }
         
         /**
@@ -281,7 +366,8 @@ public class EntityListField extends GenericField<EntityList> {
          * @see EntityList#setSinglePercent()
          */
         public double getValue( @Nullable Entity entity ) {
-            return entity != null && !BLACKLIST.contains( entity ) ? WHITELIST.getValue( entity ) : 0.0;
+            final double[] values = getValues( entity );
+            return values == null || values.length < 1 ? 0.0 : values[0];
         }
         
         /**
@@ -291,7 +377,47 @@ public class EntityListField extends GenericField<EntityList> {
          * @see EntityList#setSinglePercent()
          */
         public boolean rollChance( @Nullable LivingEntity entity ) {
-            return entity != null && !BLACKLIST.contains( entity ) && WHITELIST.rollChance( entity );
+            if( entity == null ) return false;
+            final Table current = getTable();
+            final int index = getMatchIndex( current, entity );
+            if( index == Table.BLACKLISTED ) return false;
+            
+            // Roll for any whitelisted list, even without a match, so the entity's random is used the same either way
+            final double[] values = index < 0 ? null : current.WHITELIST.getEntryValues( index );
+            final double value = values == null || values.length < 1 ? 0.0 : values[0];
+            return !current.WHITELIST.isEmpty() && entity.getRandom().nextDouble() < value;
+        }
+        
+        /**
+         * The whitelist match for each entity type, with blacklisted types already marked, so each query only needs
+         * a single lookup. Only valid for the whitelist and blacklist values it was made for.
+         */
+        private static final class Table {
+            
+            /** The match index given to blacklisted entities. */
+            static final int BLACKLISTED = -2;
+            
+            /** The whitelist value these results are for. */
+            final EntityList WHITELIST;
+            /** The blacklist value these results are for. */
+            final EntityList BLACKLIST;
+            /** The match index for each entity type queried so far (see {@link #getMatchIndex(Entity)}). */
+            private final Map<EntityType<?>, Integer> MATCH_INDICES = new ConcurrentHashMap<>();
+            
+            Table( EntityList whitelist, EntityList blacklist ) {
+                WHITELIST = whitelist;
+                BLACKLIST = blacklist;
+            }
+            
+            /** @return The whitelist index of the best-match entry, -1 if not whitelisted, or {@link #BLACKLISTED}. */
+            int getMatchIndex( Entity entity ) {
+                final Integer cached = MATCH_INDICES.get( entity.getType() );
+                if( cached != null ) return cached;
+                
+                final int index = BLACKLIST.contains( entity ) ? BLACKLISTED : WHITELIST.getMatchIndex( entity );
+                MATCH_INDICES.put( entity.getType(), index );
+                return index;
+            }
         }
     }
 }
\ No newline at end of file
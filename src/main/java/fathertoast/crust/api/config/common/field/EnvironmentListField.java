@@ -6,6 +6,8 @@ import fathertoast.crust.api.config.common.value.EnvironmentEntry;
 import fathertoast.crust.api.config.common.value.EnvironmentList;
 import fathertoast.crust.api.config.common.value.environment.AbstractEnvironment;
 import fathertoast.crust.api.config.common.value.environment.CrustEnvironmentRegistry;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentQueryCache;
+import fathertoast.crust.api.config.common.value.environment.WorldGenContext;
 import fathertoast.crust.api.lib.EnvironmentHelper;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.IWorldReader;
@@ -127,35 +129,58 @@ public class EnvironmentListField extends GenericField<EnvironmentList> {
         if( args.length < 2 ) value = "";
         else value = args[1].trim();
         
-        return CrustEnvironmentRegistry.parse( this, args[0], value );
+        // Merge identical conditions from all of the mod's config files, so they can share results
+        final AbstractEnvironment condition = CrustEnvironmentRegistry.parse( this, args[0], value );
+        return getSpec() == null ? condition : getSpec().MANAGER.internCondition( condition );
     }
     
     
     // Convenience methods
     
     /** @return The value matching the given environment, or the default value if no matching environment is defined. */
-    public double getOrElse( World world, DoubleField defaultValue ) { return get().getOrElse( world, defaultValue ); }
+    public double getOrElse( World world, DoubleField defaultValue ) {
+        if( FieldProfiler.isEnabled() ) return profiledGetOrElse( world, null, defaultValue.get() );
+        return get().getOrElse( world, defaultValue );
+    }
     
     /** @return The value matching the given environment, or the default value if no matching environment is defined. */
-    public double getOrElse( World world, double defaultValue ) { return get().getOrElse( world, defaultValue ); }
+    public double getOrElse( World world, double defaultValue ) {
+        if( FieldProfiler.isEnabled() ) return profiledGetOrElse( world, null, defaultValue );
+        return get().getOrElse( world, defaultValue );
+    }
     
     /** @return The value matching the given environment, or null if no matching environment is defined. */
     @Nullable
-    public Double get( World world ) { return get().get( world ); }
+    public Double get( World world ) {
+        if( FieldProfiler.isEnabled() ) return profiledGet( world, null );
+        return get().get( world );
+    }
+    
+    /** @return The value matching the given environment, or Double.NaN if no matching environment is defined. */
+    public double getAsDouble( World world ) {
+        if( FieldProfiler.isEnabled() ) return profiledGetOrElse( world, null, Double.NaN );
+        return get().getAsDouble( world );
+    }
     
     /**
      * @return The value matching the given environment, or the default value if no matching environment is defined.
      * @throws IllegalStateException If the position is not in a fully loaded chunk.
      * @see EnvironmentHelper#isLoaded(IWorldReader, BlockPos)
      */
-    public double getOrElse( World world, BlockPos pos, DoubleField defaultValue ) { return get().getOrElse( world, pos, defaultValue ); }
+    public double getOrElse( World world, BlockPos pos, DoubleField defaultValue ) {
+        if( FieldProfiler.isEnabled() ) return profiledGetOrElse( world, pos, defaultValue.get() );
+        return get().getOrElse( world, pos, defaultValue );
+    }
     
     /**
      * @return The value matching the given environment, or the default value if no matching environment is defined.
      * @throws IllegalStateException If the position is not in a fully loaded chunk.
      * @see EnvironmentHelper#isLoaded(IWorldReader, BlockPos)
      */
-    public double getOrElse( World world, BlockPos pos, double defaultValue ) { return get().getOrElse( world, pos, defaultValue ); }
+    public double getOrElse( World world, BlockPos pos, double defaultValue ) {
+        if( FieldProfiler.isEnabled() ) return profiledGetOrElse( world, pos, defaultValue );
+        return get().getOrElse( world, pos, defaultValue );
+    }
     
     /**
      * @return The value matching the given environment, or null if no matching environment is defined.
@@ -163,7 +188,50 @@ public class EnvironmentListField extends GenericField<EnvironmentList> {
      * @see EnvironmentHelper#isLoaded(IWorldReader, BlockPos)
      */
     @Nullable
-    public Double get( World world, BlockPos pos ) { return get().get( world, pos ); }
+    public Double get( World world, BlockPos pos ) {
+        if( FieldProfiler.isEnabled() ) return profiledGet( world, pos );
+        return get().get( world, pos );
+    }
+    
+    /**
+     * @return The value matching the given environment, or Double.NaN if no matching environment is defined.
+     * @throws IllegalStateException If the position is not in a fully loaded chunk.
+     * @see EnvironmentHelper#isLoaded(IWorldReader, BlockPos)
+     */
+    public double getAsDouble( World world, BlockPos pos ) {
+        if( FieldProfiler.isEnabled() ) return profiledGetOrElse( world, pos, Double.NaN );
+        return get().getAsDouble( world, pos );
+    }
+    
+    /**
+     * @return The value matching the given world generation environment, or the default value if no matching environment
+     * is defined. Safe to call from world generation threads.
+     * @see EnvironmentList#getOrElse(WorldGenContext, double)
+     */
+    public double getOrElse( WorldGenContext context, DoubleField defaultValue ) {
+        if( FieldProfiler.isEnabled() ) return profiledGetOrElse( context, defaultValue.get() );
+        return get().getOrElse( context, defaultValue );
+    }
+    
+    /**
+     * @return The value matching the given world generation environment, or the default value if no matching environment
+     * is defined. Safe to call from world generation threads.
+     * @see EnvironmentList#getOrElse(WorldGenContext, double)
+     */
+    public double getOrElse( WorldGenContext context, double defaultValue ) {
+        if( FieldProfiler.isEnabled() ) return profiledGetOrElse( context, defaultValue );
+        return get().getOrElse( context, defaultValue );
+    }
+    
+    /**
+     * @return The value matching the given world generation environment, or Double.NaN if no matching environment
+     * is defined. Safe to call from world generation threads.
+     * @see EnvironmentList#getOrElse(WorldGenContext, double)
+     */
+    public double getAsDouble( WorldGenContext context ) {
+        if( FieldProfiler.isEnabled() ) return profiledGetOrElse( context, Double.NaN );
+        return get().getAsDouble( context );
+    }
     
     /**
      * @return True if the position is in a fully loaded chunk.
@@ -198,4 +266,43 @@ public class EnvironmentListField extends GenericField<EnvironmentList> {
         if( pos != null && isLoaded( world, pos ) ) return get( world, pos );
         else return get( world );
     }
+    
+    /**
+     * @return The value matching the given environment, or Double.NaN if no matching environment is defined.
+     * Uses the position if it is in a fully loaded chunk, otherwise ignores it.
+     */
+    public double getAsDoubleIfLoaded( World world, @Nullable BlockPos pos ) {
+        if( pos != null && isLoaded( world, pos ) ) return getAsDouble( world, pos );
+        else return getAsDouble( world );
+    }
+    
+    /** @return The value matching the given environment, or the default value. Records the query with the profiler. */
+    private double profiledGetOrElse( World world, @Nullable BlockPos pos, double defaultValue ) {
+        final int index = profiledGetMatchIndex( world, pos );
+        return index < 0 ? defaultValue : get().getEntryValue( index );
+    }
+    
+    /** @return The value matching the given environment, or null. Records the query with the profiler. */
+    @Nullable
+    private Double profiledGet( World world, @Nullable BlockPos pos ) {
+        final int index = profiledGetMatchIndex( world, pos );
+        return index < 0 ? null : get().getEntryValue( index );
+    }
+    
+    /** @return The value matching the world generation environment, or the default value. Records the query with the profiler. */
+    private double profiledGetOrElse( WorldGenContext context, double defaultValue ) {
+        final long start = System.nanoTime();
+        final int index = get().getMatchIndex( context );
+        FieldProfiler.record( this, System.nanoTime() - start, 0L, index );
+        return index < 0 ? defaultValue : get().getEntryValue( index );
+    }
+    
+    /** @return The index of the entry matching the given environment, or -1. Records the query with the profiler. */
+    private int profiledGetMatchIndex( World world, @Nullable BlockPos pos ) {
+        final long hits = EnvironmentQueryCache.getHits();
+        final long start = System.nanoTime();
+        final int index = pos == null ? get().getMatchIndex( world ) : get().getMatchIndex( world, pos );
+        FieldProfiler.record( this, System.nanoTime() - start, EnvironmentQueryCache.getHits() - hits, index );
+        return index;
+    }
 }
\ No newline at end of file
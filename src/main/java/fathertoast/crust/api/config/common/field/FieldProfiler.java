@@ -0,0 +1,222 @@
+package fathertoast.crust.api.config.common.field;
+
+import fathertoast.crust.api.config.common.ConfigUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Optional instrumentation for the list fields that are evaluated during gameplay (environment, entity, and block lists).
+ * While sampling, each query through one of these fields records its time, the number of environment condition results
+ * served from the query cache, and the index of the entry that matched, grouped by field.
+ * <p>
+ * While not sampling, the only cost to each query is a single check of {@link #isEnabled()}.
+ */
+@SuppressWarnings( "unused" )
+public final class FieldProfiler {
+    
+    /** The number of linear sub-buckets per power of two in the time histograms, as a power of two. */
+    private static final int SUB_BUCKET_BITS = 3;
+    /** The number of linear sub-buckets per power of two in the time histograms. */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** The number of buckets needed to cover every non-negative long. */
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    
+    /** True while sampling. */
+    private static volatile boolean enabled;
+    /** The nano time sampling was last started at. */
+    private static long startTime;
+    /** The nano time sampling was last stopped at. */
+    private static long stopTime;
+    /** The results recorded so far, by field. */
+    private static final Map<AbstractConfigField, Stats> STATS = new IdentityHashMap<>();
+    
+    /** @return True while sampling. Fields should only take the (slower) recording path when this is true. */
+    public static boolean isEnabled() { return enabled; }
+    
+    /** Discards all recorded results and starts sampling. */
+    public static void start() {
+        synchronized( STATS ) {
+            STATS.clear();
+            startTime = System.nanoTime();
+            enabled = true;
+        }
+    }
+    
+    /** Stops sampling. Recorded results are kept until sampling is started again. */
+    public static void stop() {
+        synchronized( STATS ) {
+            if( enabled ) stopTime = System.nanoTime();
+            enabled = false;
+        }
+    }
+    
+    /**
+     * Records a single query made through a field.
+     *
+     * @param field      The field that was queried.
+     * @param nanos      The time taken by the query.
+     * @param cacheHits  The number of condition results served from the environment query cache during the query.
+     * @param matchIndex The index of the entry that matched, or -1 if no entry matched.
+     */
+    public static void record( AbstractConfigField field, long nanos, long cacheHits, int matchIndex ) {
+        if( !enabled ) return; // Stopped during the query
+        final Stats stats;
+        synchronized( STATS ) {
+            stats = STATS.computeIfAbsent( field, Stats::new );
+        }
+        stats.record( nanos, cacheHits, matchIndex );
+    }
+    
+    /** @return The number of fields with recorded results. */
+    public static int size() {
+        synchronized( STATS ) {
+            return STATS.size();
+        }
+    }
+    
+    /** @return A line describing each field's recorded results, from the highest total time to the lowest. */
+    public static List<String> report() {
+        final List<Stats> sorted;
+        synchronized( STATS ) {
+            sorted = new ArrayList<>( STATS.values() );
+        }
+        final List<String> report = new ArrayList<>( sorted.size() );
+        for( Stats stats : sorted ) stats.snapshot();
+        sorted.sort( Comparator.comparingLong( ( Stats stats ) -> stats.snapshotNanos ).reversed() );
+        for( Stats stats : sorted ) report.add( stats.toString() );
+        return report;
+    }
+    
+    /** @return The time sampled for, in seconds; up to now if still sampling. */
+    public static double getSampledSeconds() { return ((enabled ? System.nanoTime() : stopTime) - startTime) / 1.0E9; }
+    
+    /**
+     * Writes the full report to a file, with a short header.
+     *
+     * @throws IOException If the file could not be written.
+     */
+    public static void writeReport( File file, List<String> report ) throws IOException {
+        final File dir = file.getParentFile();
+        if( dir != null && !dir.exists() && !dir.mkdirs() ) {
+            throw new IOException( "Failed to create directory " + ConfigUtil.toRelativePath( dir ) );
+        }
+        try( PrintWriter writer = new PrintWriter( Files.newBufferedWriter( file.toPath(), StandardCharsets.UTF_8 ) ) ) {
+            writer.println( "# Crust field profile" );
+            writer.printf( Locale.ROOT, "# Sampled for %.2f s; %d fields recorded; sorted by total time%n", getSampledSeconds(), report.size() );
+            writer.printf( Locale.ROOT, "# Times are in microseconds; percentiles are accurate to within %.1f%%%n", 100.0 / SUB_BUCKETS );
+            writer.println( "# Matches are listed by entry index ('none' for no match), most common first" );
+            for( String line : report ) writer.println( line );
+        }
+    }
+    
+    /** @return The histogram bucket for a time. Buckets are linear below {@link #SUB_BUCKETS}, then log-linear. */
+    private static int bucketOf( long nanos ) {
+        if( nanos < SUB_BUCKETS ) return (int) Math.max( nanos, 0L );
+        final int msb = Long.SIZE - 1 - Long.numberOfLeadingZeros( nanos );
+        return (msb - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + (int) ((nanos >>> (msb - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+    }
+    
+    /** @return The highest time that falls into a histogram bucket. */
+    private static long maxOf( int bucket ) {
+        if( bucket < SUB_BUCKETS ) return bucket;
+        final int shift = bucket / SUB_BUCKETS - 1;
+        final long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1L;
+    }
+    
+    /** The results recorded for a single field. */
+    private static final class Stats {
+        
+        /** The field the results are for. */
+        private final AbstractConfigField FIELD;
+        /** The number of queries made in each time bucket. */
+        private final long[] HISTOGRAM = new long[BUCKETS];
+        
+        private long calls;
+        private long totalNanos;
+        private long maxNanos;
+        private long cacheHits;
+        private long noMatches;
+        /** The number of times each entry index matched. Grown as needed. */
+        private long[] matches = new long[4];
+        
+        /** The total time as of the last snapshot, used to sort the report consistently. */
+        private long snapshotNanos;
+        
+        Stats( AbstractConfigField field ) { FIELD = field; }
+        
+        /** Records a single query. */
+        synchronized void record( long nanos, long hits, int matchIndex ) {
+            calls++;
+            totalNanos += nanos;
+            if( nanos > maxNanos ) maxNanos = nanos;
+            cacheHits += hits;
+            HISTOGRAM[bucketOf( nanos )]++;
+            if( matchIndex < 0 ) {
+                noMatches++;
+            }
+            else {
+                if( matchIndex >= matches.length ) matches = Arrays.copyOf( matches, Math.max( matchIndex + 1, matches.length * 2 ) );
+                matches[matchIndex]++;
+            }
+        }
+        
+        /** Captures the total time, so it does not change while the report is sorted. */
+        synchronized void snapshot() { snapshotNanos = totalNanos; }
+        
+        /** @return The lowest time that at least the given fraction of queries took no longer than. */
+        private long percentile( double fraction ) {
+            final long target = Math.max( 1L, (long) Math.ceil( calls * fraction ) );
+            long count = 0L;
+            for( int bucket = 0; bucket < BUCKETS; bucket++ ) {
+                count += HISTOGRAM[bucket];
+                if( count >= target ) return Math.min( maxOf( bucket ), maxNanos );
+            }
+            return maxNanos;
+        }
+        
+        /** @return The matched entry indices and their counts, most common first. */
+        private String matchesToString() {
+            final List<Integer> indices = new ArrayList<>();
+            for( int i = 0; i < matches.length; i++ ) {
+                if( matches[i] > 0L ) indices.add( i );
+            }
+            indices.sort( ( a, b ) -> Long.compare( matches[b], matches[a] ) );
+            
+            final StringBuilder str = new StringBuilder();
+            for( int i : indices ) {
+                if( str.length() > 0 ) str.append( ", " );
+                str.append( '#' ).append( i ).append( '=' ).append( matches[i] );
+            }
+            if( noMatches > 0L ) {
+                if( str.length() > 0 ) str.append( ", " );
+                str.append( "none=" ).append( noMatches );
+            }
+            return str.toString();
+        }
+        
+        /** @return A single line describing the recorded results. */
+        @Override
+        public synchronized String toString() {
+            return String.format( Locale.ROOT,
+                    "%s - calls=%d, total=%.1f, mean=%.2f, p50=%.2f, p90=%.2f, p99=%.2f, max=%.2f, cacheHits=%d, matches=[%s]",
+                    nameOf( FIELD ), calls,
+                    totalNanos / 1000.0, calls == 0L ? 0.0 : totalNanos / 1000.0 / calls,
+                    percentile( 0.5 ) / 1000.0, percentile( 0.9 ) / 1000.0, percentile( 0.99 ) / 1000.0, maxNanos / 1000.0,
+                    cacheHits, matchesToString() );
+        }
+        
+        /** @return The field's key, prefixed by the mod and config file it belongs to. */
+        private static String nameOf( AbstractConfigField field ) {
+            if( field.getSpec() == null ) return field.getKey();
+            return field.getSpec().MANAGER.MOD_ID + ":" + field.getSpec().NAME + " " + field.getKey();
+        }
+    }
+    
+    private FieldProfiler() { }
+}
\ No newline at end of file
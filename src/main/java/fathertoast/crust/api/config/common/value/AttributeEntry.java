@@ -31,8 +31,11 @@ public class AttributeEntry {
     /** The value given to this entry. */
     public final double VALUE;
     
-    /** The attribute this entry is defined for. */
-    private Attribute attribute;
+    /**
+     * The attribute this entry is defined for. Volatile so entries can be used from any thread; it is only ever set to
+     * the same value, so threads racing to load it can, at worst, repeat the work.
+     */
+    private volatile Attribute attribute;
     
     /** Creates an entry with the specified values using the addition operation. Incompatible with move speed. Used for creating default configs. */
     public static AttributeEntry add( Attribute attribute, double value ) {
@@ -25,6 +25,8 @@ public class BlockList implements IStringArray {
     private final Map<Block, BlockEntry> UNDERLYING_MAP = new HashMap<>();
     /** The list used to write back to file. Consists of cloned single-state block entries. */
     private final List<BlockEntry> PRINT_LIST = new ArrayList<>();
+    /** The compiled form of this list, built the first time it is matched against. Null until then. */
+    private volatile BlockStateMatcher matcher;
     
     /**
      * Create a new block list from an array of entries. Used for creating default configs.
@@ -88,10 +90,33 @@ public class BlockList implements IStringArray {
     
     /** @return Returns true if the block is contained in this list. */
     public boolean matches( BlockState blockState ) {
+        if( UNDERLYING_MAP.isEmpty() ) return false;
+        final int id = Block.getId( blockState );
+        BlockStateMatcher current = matcher;
+        if( current == null || !current.isValidFor( blockState, id ) ) {
+            if( id < 0 ) return matchesEntries( blockState ); // Not registered; can't be compiled
+            current = BlockStateMatcher.of( this, blockState, id );
+            matcher = current;
+            if( !current.isValidFor( blockState, id ) ) return matchesEntries( blockState ); // Ids are being reassigned
+        }
+        return current.matches( id );
+    }
+    
+    /** @return Returns true if the block is contained in this list, tested against the entries directly. */
+    boolean matchesEntries( BlockState blockState ) {
         BlockEntry entry = UNDERLYING_MAP.get( blockState.getBlock() );
         return entry != null && entry.matches( blockState );
     }
     
+    /**
+     * @return The index (in file order) of the entry that the block state matched, or -1 if it is not contained in this list.
+     * Entries for the same block are merged into the first of them. This is slower than {@link #matches(BlockState)}.
+     */
+    public int getMatchIndex( BlockState blockState ) {
+        BlockEntry entry = UNDERLYING_MAP.get( blockState.getBlock() );
+        return entry != null && entry.matches( blockState ) ? PRINT_LIST.indexOf( entry ) : -1;
+    }
+    
     /** @param otherEntry Merges all matching from a block entry into this list. */
     private void mergeFrom( BlockEntry otherEntry ) {
         PRINT_LIST.add( otherEntry );
@@ -0,0 +1,83 @@
+package fathertoast.crust.api.config.common.value;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The 'compiled' form of a block list; a bit set over global block state ids (see {@link Block#getId(BlockState)}),
+ * so matching a block state is a single bit test. Block lists with identical contents share the same matcher.
+ * <p>
+ * State ids can be reassigned at runtime (for example, when joining a server with a different set of blocks). Each
+ * matcher remembers the state for every id at the time it was built, so a query can cheaply confirm that its state
+ * still has the same id; if not, a new matcher is built against the current ids.
+ */
+final class BlockStateMatcher {
+    
+    /** The block state ids that matchers are currently built against. */
+    private static volatile Snapshot snapshot;
+    
+    /**
+     * @return A matcher for the block list that is valid for the given state and its current id. Matchers are shared
+     * between lists with the same contents.
+     */
+    static BlockStateMatcher of( BlockList list, BlockState state, int id ) {
+        final Snapshot latest = snapshot;
+        final Snapshot current = latest != null && latest.isValidFor( state, id ) ? latest : refreshSnapshot( state, id );
+        return current.MATCHERS.computeIfAbsent( list.toStringList(), ( key ) -> new BlockStateMatcher( list, current ) );
+    }
+    
+    /** @return The current snapshot, rebuilt from the block state id registry if it is not valid for the given state. */
+    private static synchronized Snapshot refreshSnapshot( BlockState state, int id ) {
+        Snapshot current = snapshot;
+        if( current == null || !current.isValidFor( state, id ) ) {
+            current = new Snapshot();
+            snapshot = current;
+        }
+        return current;
+    }
+    
+    /** The block state for each id, at the time these matchers were built against them. */
+    private final BlockState[] STATES;
+    /** One bit for each block state id; set if the state is matched by the block list. */
+    private final long[] BITS;
+    
+    /** Compiles the block list against the snapshot's block state ids. */
+    private BlockStateMatcher( BlockList list, Snapshot snapshot ) {
+        STATES = snapshot.STATES;
+        BITS = new long[(STATES.length + 63) >>> 6];
+        for( int id = 0; id < STATES.length; id++ ) {
+            if( STATES[id] != null && list.matchesEntries( STATES[id] ) ) BITS[id >>> 6] |= 1L << id;
+        }
+    }
+    
+    /** @return True if this matcher was built with the state at the given id, so its bit for that id is correct. */
+    boolean isValidFor( BlockState state, int id ) { return id >= 0 && id < STATES.length && STATES[id] == state; }
+    
+    /** @return True if the block state with the given id is matched. Only valid if {@link #isValidFor(BlockState, int)} is true. */
+    boolean matches( int id ) { return (BITS[id >>> 6] & 1L << id) != 0L; }
+    
+    /** The block states for each id at some point in time, and the matchers built against them. */
+    private static final class Snapshot {
+        
+        /** The block state for each id. */
+        final BlockState[] STATES;
+        /** The matchers built against these ids, by the contents of their block list. */
+        final Map<List<String>, BlockStateMatcher> MATCHERS = new ConcurrentHashMap<>();
+        
+        Snapshot() {
+            STATES = new BlockState[Block.BLOCK_STATE_REGISTRY.size()];
+            for( BlockState state : Block.BLOCK_STATE_REGISTRY ) {
+                final int id = Block.getId( state );
+                if( id >= 0 && id < STATES.length ) STATES[id] = state;
+            }
+        }
+        
+        /** @return True if the state had the given id when this snapshot was taken. */
+        boolean isValidFor( BlockState state, int id ) { return id >= 0 && id < STATES.length && STATES[id] == state; }
+    }
+
+}
\ No newline at end of file
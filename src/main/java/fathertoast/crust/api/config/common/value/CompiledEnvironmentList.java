@@ -0,0 +1,521 @@
+package fathertoast.crust.api.config.common.value;
+
+import fathertoast.crust.api.config.common.value.environment.AbstractEnvironment;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentContext;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentCost;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentQueryCache;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentScope;
+import fathertoast.crust.api.config.common.value.environment.WorldGenContext;
+import fathertoast.crust.api.config.common.value.environment.WorldStateSnapshot;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.function.IntToLongFunction;
+
+/**
+ * The 'compiled' form of an environment list, built once when the list is created (i.e., when the config is loaded).
+ * <p>
+ * Identical conditions shared between entries are merged into a single condition so they are only tested once per
+ * query, entries that can never be chosen are dropped, and the remaining entries are flattened into a few primitive
+ * arrays. Evaluation gives exactly the same first-match result as testing each entry in order.
+ * <p>
+ * On the server thread, each entry's world-level conditions are tested once per world, and entries that fail them are
+ * skipped outright by every query made in that world until a world event or the passage of time could change them.
+ */
+final class CompiledEnvironmentList {
+    
+    /** The number of conditions whose results can be remembered during a single query (one bit each in a long). */
+    private static final int MAX_MEMOIZED = Long.SIZE;
+    /** The number of worlds whose world-level results can be remembered at once. Must be a power of two. */
+    private static final int WORLD_SLOTS = 4;
+    
+    /** The unique conditions used by this list. Conditions worth remembering are sorted to the front. */
+    final AbstractEnvironment[] CONDITIONS;
+    /** The number of conditions (from the front) that are shared between entries or positions, and therefore worth remembering. */
+    private final int MEMOIZED;
+    /** Bits for the remembered conditions whose results can be reused anywhere in the same world during a batch. */
+    final long WORLD_MEMO;
+    /** Bits for the remembered conditions whose results can be reused anywhere in the same chunk during a batch. */
+    final long CHUNK_MEMO;
+    /** For each condition, true if its results should go through the {@link EnvironmentQueryCache}. */
+    private final boolean[] CACHED;
+    /** For each condition, true if it can be tested during world generation. */
+    private final boolean[] WORLD_GEN;
+    /** True if every condition can be tested during world generation. */
+    final boolean SUPPORTS_WORLD_GEN;
+    
+    /** The value of each reachable entry, in evaluation order. */
+    final double[] VALUES;
+    /** The index of each reachable entry within the original entry array. */
+    final int[] SOURCE_INDICES;
+    /** The start of each reachable entry's condition indices within {@link #OPERANDS}. Has one extra element at the end. */
+    private final int[] ENTRY_STARTS;
+    /** The condition indices for all reachable entries, back-to-back. Each entry's world-level conditions are first. */
+    private final int[] OPERANDS;
+    /** The end of each reachable entry's world-level condition indices within {@link #OPERANDS}. */
+    private final int[] WORLD_ENDS;
+    /** True if any reachable entry has a world-level condition. */
+    private final boolean HAS_WORLD_CONDITIONS;
+    
+    /** The worlds whose world-level results are remembered, by slot. Weak so this list can't keep a world loaded. */
+    private final WeakReference<?>[] filterWorlds = new WeakReference<?>[WORLD_SLOTS];
+    /** The world state epoch each slot's results were calculated in. */
+    private final long[] filterEpochs = new long[WORLD_SLOTS];
+    /** The last game time each slot's results are valid for. */
+    private final long[] filterUntil = new long[WORLD_SLOTS];
+    /** Whether each slot's results were calculated with a position, since a few environments check for one. */
+    private final boolean[] filterHasPos = new boolean[WORLD_SLOTS];
+    /** For each slot, a bit set of the entries whose world-level conditions all passed. */
+    private final long[][] filterEntries = new long[WORLD_SLOTS][];
+    
+    /** Compiles the entries into an optimized, but equivalent, form. */
+    CompiledEnvironmentList( EnvironmentEntry[] entries ) {
+        // Assign each unique condition an id and convert each entry into a set of ids
+        final Map<String, Integer> idsByKey = new HashMap<>();
+        final List<AbstractEnvironment> uniqueConditions = new ArrayList<>();
+        final List<int[]> entryIds = new ArrayList<>();
+        final List<Integer> entrySources = new ArrayList<>();
+        
+        for( int i = 0; i < entries.length; i++ ) {
+            final AbstractEnvironment[] conditions = entries[i].getConditions();
+            final Set<Integer> ids = new LinkedHashSet<>(); // Also drops duplicate conditions within the entry
+            for( AbstractEnvironment condition : conditions ) {
+                Integer id = idsByKey.get( keyOf( condition ) );
+                if( id == null ) {
+                    id = uniqueConditions.size();
+                    idsByKey.put( keyOf( condition ), id );
+                    uniqueConditions.add( condition );
+                }
+                ids.add( id );
+            }
+            
+            // Fold away entries that cannot ever be chosen
+            if( isContradiction( conditions ) || isShadowed( ids, entryIds ) ) continue;
+            
+            entryIds.add( toArray( ids ) );
+            entrySources.add( i );
+            
+            // An entry with no conditions always matches, so nothing after it can be reached
+            if( ids.isEmpty() ) break;
+        }
+        
+        // Count how many reachable entries use each condition
+        final int[] useCounts = new int[uniqueConditions.size()];
+        for( int[] ids : entryIds ) {
+            for( int id : ids ) useCounts[id]++;
+        }
+        
+        // Conditions are worth remembering if they are shared between entries or can be reused between positions
+        final boolean[] memoizable = new boolean[useCounts.length];
+        for( int id = 0; id < useCounts.length; id++ ) {
+            memoizable[id] = useCounts[id] > 1 || uniqueConditions.get( id ).getScope() != EnvironmentScope.BLOCK;
+        }
+        
+        // Order the conditions so the memoizable and most-shared ones are first, and drop any that are no longer used
+        final List<Integer> order = new ArrayList<>();
+        for( int id = 0; id < useCounts.length; id++ ) {
+            if( useCounts[id] > 0 ) order.add( id );
+        }
+        order.sort( ( a, b ) -> memoizable[a] != memoizable[b] ? (memoizable[a] ? -1 : 1) :
+                Integer.compare( useCounts[b], useCounts[a] ) ); // Stable, so ties keep file order
+        
+        final int[] remap = new int[useCounts.length];
+        CONDITIONS = new AbstractEnvironment[order.size()];
+        CACHED = new boolean[order.size()];
+        WORLD_GEN = new boolean[order.size()];
+        boolean supportsWorldGen = true;
+        int memoCount = 0;
+        for( int i = 0; i < CONDITIONS.length; i++ ) {
+            final int id = order.get( i );
+            remap[id] = i;
+            CONDITIONS[i] = uniqueConditions.get( id );
+            CACHED[i] = CONDITIONS[i].getCost().compareTo( EnvironmentCost.PER_COLUMN ) >= 0; // Cheaper checks aren't worth it
+            WORLD_GEN[i] = CONDITIONS[i].supportsWorldGen();
+            if( !WORLD_GEN[i] ) supportsWorldGen = false;
+            if( memoizable[id] ) memoCount++;
+        }
+        MEMOIZED = Math.min( memoCount, MAX_MEMOIZED );
+        SUPPORTS_WORLD_GEN = supportsWorldGen;
+        
+        // Mark which remembered results are still valid when moving to another position in the same world or chunk
+        long worldMemo = 0L;
+        long chunkMemo = 0L;
+        for( int c = 0; c < MEMOIZED; c++ ) {
+            final EnvironmentScope scope = CONDITIONS[c].getScope();
+            if( scope == EnvironmentScope.WORLD ) worldMemo |= 1L << c;
+            if( scope != EnvironmentScope.BLOCK ) chunkMemo |= 1L << c;
+        }
+        WORLD_MEMO = worldMemo;
+        CHUNK_MEMO = chunkMemo;
+        
+        // Flatten the entries
+        VALUES = new double[entryIds.size()];
+        SOURCE_INDICES = new int[entryIds.size()];
+        ENTRY_STARTS = new int[entryIds.size() + 1];
+        WORLD_ENDS = new int[entryIds.size()];
+        int operandCount = 0;
+        for( int[] ids : entryIds ) operandCount += ids.length;
+        OPERANDS = new int[operandCount];
+        
+        int op = 0;
+        for( int e = 0; e < VALUES.length; e++ ) {
+            SOURCE_INDICES[e] = entrySources.get( e );
+            VALUES[e] = entries[SOURCE_INDICES[e]].VALUE;
+            ENTRY_STARTS[e] = op;
+            for( int id : entryIds.get( e ) ) OPERANDS[op++] = remap[id];
+            sortByCost( ENTRY_STARTS[e], op );
+            
+            WORLD_ENDS[e] = ENTRY_STARTS[e];
+            while( WORLD_ENDS[e] < op && isWorldLevel( OPERANDS[WORLD_ENDS[e]] ) ) WORLD_ENDS[e]++;
+        }
+        ENTRY_STARTS[VALUES.length] = op;
+        
+        boolean hasWorldConditions = false;
+        for( int e = 0; e < VALUES.length; e++ ) {
+            if( WORLD_ENDS[e] > ENTRY_STARTS[e] ) hasWorldConditions = true;
+        }
+        HAS_WORLD_CONDITIONS = hasWorldConditions;
+    }
+    
+    /** @return The number of reachable entries. */
+    int size() { return VALUES.length; }
+    
+    /**
+     * @return The index (within this compiled list) of the first entry matching the given environment,
+     * or -1 if no entry matches. May cause a world loading deadlock if the position is not in a fully loaded chunk.
+     */
+    int firstMatch( World world, @Nullable BlockPos pos ) {
+        final EnvironmentContext context = EnvironmentContext.acquire( world, pos );
+        try {
+            return firstMatch( context );
+        }
+        finally {
+            context.release();
+        }
+    }
+    
+    /**
+     * @return The index (within this compiled list) of the first entry matching the given environment,
+     * or -1 if no entry matches. May cause a world loading deadlock if the position is not in a fully loaded chunk.
+     */
+    int firstMatch( EnvironmentContext context ) {
+        final boolean useCache = context.getPos() != null && EnvironmentQueryCache.isAvailable( context.getWorld() );
+        final long[] filter = getWorldFilter( context );
+        
+        // Results of shared conditions that have been tested so far this query
+        long tested = 0L;
+        long passed = 0L;
+        
+        for( int e = 0; e < VALUES.length; e++ ) {
+            if( filter != null && (filter[e >>> 6] & 1L << e) == 0L ) continue; // Failed its world-level conditions
+            final int end = ENTRY_STARTS[e + 1];
+            boolean match = true;
+            for( int op = filter == null ? ENTRY_STARTS[e] : WORLD_ENDS[e]; op < end; op++ ) {
+                final int c = OPERANDS[op];
+                final boolean result;
+                if( c < MEMOIZED ) {
+                    final long bit = 1L << c;
+                    if( (tested & bit) != 0L ) {
+                        result = (passed & bit) != 0L;
+                    }
+                    else {
+                        result = test( c, context, useCache );
+                        tested |= bit;
+                        if( result ) passed |= bit;
+                    }
+                }
+                else {
+                    result = test( c, context, useCache );
+                }
+                if( !result ) {
+                    match = false;
+                    break;
+                }
+            }
+            if( match ) return e;
+        }
+        return -1;
+    }
+    
+    /**
+     * @return The index (within this compiled list) of the first entry matching the given world generation environment,
+     * or -1 if no entry matches. Conditions that can't be tested during world generation never match.
+     * Nothing is shared between calls, so this is safe to call from any thread.
+     */
+    int firstMatch( WorldGenContext context ) {
+        // Results of shared conditions that have been tested so far this query
+        long tested = 0L;
+        long passed = 0L;
+        
+        for( int e = 0; e < VALUES.length; e++ ) {
+            final int end = ENTRY_STARTS[e + 1];
+            boolean match = true;
+            for( int op = ENTRY_STARTS[e]; op < end; op++ ) {
+                final int c = OPERANDS[op];
+                final boolean result;
+                if( c < MEMOIZED ) {
+                    final long bit = 1L << c;
+                    if( (tested & bit) != 0L ) {
+                        result = (passed & bit) != 0L;
+                    }
+                    else {
+                        result = WORLD_GEN[c] && CONDITIONS[c].matches( context );
+                        tested |= bit;
+                        if( result ) passed |= bit;
+                    }
+                }
+                else {
+                    result = WORLD_GEN[c] && CONDITIONS[c].matches( context );
+                }
+                if( !result ) {
+                    match = false;
+                    break;
+                }
+            }
+            if( match ) return e;
+        }
+        return -1;
+    }
+    
+    /**
+     * Fills the output array with the value matching each position, or the default value where no entry matches.
+     * Positions are evaluated grouped by chunk, so world-level results are shared by the whole batch and chunk-level
+     * results by all positions in the same chunk. The positions are sorted into chunk groups once per batch; nothing
+     * else is allocated.
+     * May cause a world loading deadlock if any position is not in a fully loaded chunk.
+     *
+     * @param positions Gets the packed position (see {@link BlockPos#asLong()}) for each index below the count.
+     */
+    void getAll( World world, int count, IntToLongFunction positions, double defaultValue, double[] out ) {
+        final boolean useCache = EnvironmentQueryCache.isAvailable( world );
+        final BlockPos.Mutable pos = new BlockPos.Mutable();
+        final long[] memo = new long[2]; // Tested and passed bits, carried between positions
+        final long[] chunks = new long[count];
+        final int[] order = groupByChunk( count, positions, chunks );
+        // Start the context at the first position so it is set up the same as the rest of the batch
+        final EnvironmentContext context = EnvironmentContext.acquire( world, count > 0 ? pos.set( positions.applyAsLong( order[0] ) ) : null );
+        try {
+            final long[] filter = getWorldFilter( context );
+            for( int k = 0; k < count; k++ ) {
+                final int i = order[k];
+                if( k > 0 && chunks[i] != chunks[order[k - 1]] ) {
+                    // Start a new chunk group; only world-level results carry over from the last group
+                    memo[0] &= WORLD_MEMO;
+                    memo[1] &= WORLD_MEMO;
+                }
+                // Only world- and chunk-level results carry over from the last position
+                memo[0] &= CHUNK_MEMO;
+                memo[1] &= CHUNK_MEMO;
+                context.move( pos.set( positions.applyAsLong( i ) ) ); // The context keeps world and chunk data the same way
+                final int index = firstMatch( context, 0, useCache, memo, filter );
+                out[i] = index < 0 ? defaultValue : VALUES[index];
+            }
+        }
+        finally {
+            context.release();
+        }
+    }
+    
+    /**
+     * @return The position indices, ordered so positions in the same chunk are next to each other. Positions within a
+     * chunk keep their original order. The chunk key for each position is written to the given array.
+     */
+    private static int[] groupByChunk( int count, IntToLongFunction positions, long[] chunks ) {
+        final int[] order = new int[count];
+        boolean sorted = true;
+        for( int i = 0; i < count; i++ ) {
+            order[i] = i;
+            chunks[i] = chunkKey( positions.applyAsLong( i ) );
+            if( i > 0 && chunks[i] < chunks[i - 1] ) sorted = false;
+        }
+        if( !sorted ) IntArrays.mergeSort( order, 0, count, ( a, b ) -> Long.compare( chunks[a], chunks[b] ) );
+        return order;
+    }
+    
+    /** @return The chunk key for a packed block position. */
+    private static long chunkKey( long packed ) { return ChunkPos.asLong( BlockPos.getX( packed ) >> 4, BlockPos.getZ( packed ) >> 4 ); }
+    
+    /**
+     * @return The index of the first entry (at or after the given index) matching the given environment, or -1 if no
+     * entry matches. Same as {@link #firstMatch(EnvironmentContext)}, but the remembered results are read from and
+     * written to the memo array (tested bits, then passed bits) so they can be carried between positions.
+     */
+    int firstMatch( EnvironmentContext context, int from, boolean useCache, long[] memo, @Nullable long[] filter ) {
+        for( int e = from; e < VALUES.length; e++ ) {
+            if( filter != null && (filter[e >>> 6] & 1L << e) == 0L ) continue; // Failed its world-level conditions
+            final int end = ENTRY_STARTS[e + 1];
+            boolean match = true;
+            for( int op = filter == null ? ENTRY_STARTS[e] : WORLD_ENDS[e]; op < end; op++ ) {
+                final int c = OPERANDS[op];
+                final boolean result;
+                if( c < MEMOIZED ) {
+                    final long bit = 1L << c;
+                    if( (memo[0] & bit) != 0L ) {
+                        result = (memo[1] & bit) != 0L;
+                    }
+                    else {
+                        result = test( c, context, useCache );
+                        memo[0] |= bit;
+                        if( result ) memo[1] |= bit;
+                    }
+                }
+                else {
+                    result = test( c, context, useCache );
+                }
+                if( !result ) {
+                    match = false;
+                    break;
+                }
+            }
+            if( match ) return e;
+        }
+        return -1;
+    }
+    
+    /**
+     * @return A bit set of the entries whose world-level conditions all pass in the context's world this tick, or null
+     * if this list has no world-level conditions or the results can't be remembered (i.e., not on the server thread).
+     * The world-level conditions are only actually tested again after a world event (see {@link WorldStateSnapshot#getEpoch()})
+     * or once any of their results may have changed with time.
+     */
+    @Nullable
+    private long[] getWorldFilter( EnvironmentContext context ) {
+        final World world = context.getWorld();
+        if( !HAS_WORLD_CONDITIONS || !EnvironmentQueryCache.isAvailable( world ) ) return null;
+        
+        final int slot = System.identityHashCode( world ) & (WORLD_SLOTS - 1);
+        final WorldStateSnapshot state = context.getWorldState();
+        final WeakReference<?> ref = filterWorlds[slot];
+        final boolean hasPos = context.getPos() != null;
+        final boolean sameWorld = ref != null && ref.get() == world;
+        if( sameWorld && filterEpochs[slot] == state.getEpoch() && state.getGameTime() <= filterUntil[slot] &&
+                filterHasPos[slot] == hasPos ) {
+            return filterEntries[slot];
+        }
+        
+        if( filterEntries[slot] == null ) filterEntries[slot] = newFilter();
+        final long[] filter = filterEntries[slot];
+        if( !sameWorld ) filterWorlds[slot] = new WeakReference<>( world );
+        filterEpochs[slot] = state.getEpoch();
+        filterUntil[slot] = testWorldLevel( context, filter );
+        filterHasPos[slot] = hasPos;
+        return filter;
+    }
+    
+    /** @return A new, empty bit set with one bit for each reachable entry. */
+    long[] newFilter() { return new long[(VALUES.length + 63) >>> 6]; }
+    
+    /**
+     * Tests each entry's world-level conditions, setting the bit in the filter for each entry whose world-level
+     * conditions all pass (and clearing all others). Entries with no world-level conditions always pass.
+     *
+     * @return The last game time the results are sure to stay the same through, barring world events.
+     * @see AbstractEnvironment#getStableUntil(EnvironmentContext)
+     */
+    long testWorldLevel( EnvironmentContext context, long[] filter ) {
+        Arrays.fill( filter, 0L );
+        long until = Long.MAX_VALUE;
+        long tested = 0L;
+        long passed = 0L;
+        for( int e = 0; e < VALUES.length; e++ ) {
+            boolean match = true;
+            for( int op = ENTRY_STARTS[e]; op < WORLD_ENDS[e]; op++ ) {
+                final int c = OPERANDS[op];
+                final boolean result;
+                final long bit = c < MEMOIZED ? 1L << c : 0L;
+                if( (tested & bit) != 0L ) {
+                    result = (passed & bit) != 0L;
+                }
+                else {
+                    result = CONDITIONS[c].matchesMemoized( context ); // Shared with other lists using the same condition
+                    until = Math.min( until, CONDITIONS[c].getStableUntil( context ) );
+                    tested |= bit;
+                    if( result ) passed |= bit;
+                }
+                if( !result ) {
+                    match = false;
+                    break;
+                }
+            }
+            if( match ) filter[e >>> 6] |= 1L << e;
+        }
+        return until;
+    }
+    
+    /** @return True if the condition gives the same result anywhere in a world during a single tick. */
+    private boolean isWorldLevel( int c ) { return CONDITIONS[c].getScope() == EnvironmentScope.WORLD; }
+    
+    /** @return Returns true if the condition matches the provided environment. */
+    private boolean test( int c, EnvironmentContext context, boolean useCache ) {
+        return useCache && CACHED[c] ? EnvironmentQueryCache.matches( CONDITIONS[c], context ) :
+                CONDITIONS[c].matches( context );
+    }
+    
+    /**
+     * Sorts a range of operands so world-level conditions are first, then the cheapest conditions. Every condition in
+     * an entry must match, so this does not change the result. Uses insertion sort since entries rarely have more than
+     * a few conditions.
+     */
+    private void sortByCost( int from, int to ) {
+        for( int i = from + 1; i < to; i++ ) {
+            final int c = OPERANDS[i];
+            final int rank = rankOf( c );
+            int j = i - 1;
+            while( j >= from && rankOf( OPERANDS[j] ) > rank ) {
+                OPERANDS[j + 1] = OPERANDS[j];
+                j--;
+            }
+            OPERANDS[j + 1] = c;
+        }
+    }
+    
+    /** @return The sort order of a condition within an entry; world-level conditions first, then by cost. */
+    private int rankOf( int c ) {
+        return (isWorldLevel( c ) ? 0 : EnvironmentCost.values().length) + CONDITIONS[c].getCost().ordinal();
+    }
+    
+    /** @return A key that is equal for any two conditions that will always give the same result. */
+    private static String keyOf( AbstractEnvironment condition ) {
+        return condition.getClass().getName() + " " + condition.value();
+    }
+    
+    /** @return True if the conditions contain both a condition and its inverse, so they can never all match. */
+    private static boolean isContradiction( AbstractEnvironment[] conditions ) {
+        for( AbstractEnvironment condition : conditions ) {
+            final String value = condition.value();
+            if( value == null || value.startsWith( "!" ) ) continue;
+            for( AbstractEnvironment other : conditions ) {
+                if( other.getClass() == condition.getClass() && ("!" + value).equals( other.value() ) ) return true;
+            }
+        }
+        return false;
+    }
+    
+    /** @return True if an earlier entry matches whenever this one does; i.e., it only needs a subset of these conditions. */
+    private static boolean isShadowed( Set<Integer> ids, List<int[]> earlierEntries ) {
+        for( int[] earlier : earlierEntries ) {
+            boolean subset = true;
+            for( int id : earlier ) {
+                if( !ids.contains( id ) ) {
+                    subset = false;
+                    break;
+                }
+            }
+            if( subset ) return true;
+        }
+        return false;
+    }
+    
+    /** @return The set converted to a primitive array, in iteration order. */
+    private static int[] toArray( Set<Integer> ids ) {
+        final int[] array = new int[ids.size()];
+        int i = 0;
+        for( int id : ids ) array[i++] = id;
+        return array;
+    }
+}
\ No newline at end of file
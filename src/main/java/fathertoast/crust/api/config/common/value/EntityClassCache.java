@@ -0,0 +1,96 @@
+package fathertoast.crust.api.config.common.value;
+
+import fathertoast.crust.api.config.common.AbstractConfigFile;
+import fathertoast.crust.api.config.common.ConfigManager;
+import fathertoast.crust.api.config.common.ConfigUtil;
+import fathertoast.crust.api.config.common.field.AbstractConfigField;
+import fathertoast.crust.api.config.common.field.EntityListField;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.world.World;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.fml.event.server.FMLServerStartedEvent;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The entity class made by each entity type, shared by all entity lists. The class can only be found by creating an
+ * entity, so each type is only ever tried once; types whose entities can't be created without more context (such as
+ * players) are remembered as having no class.
+ * <p>
+ * When a server starts, the types named by every loaded entity list config field are looked up, so queries made
+ * during gameplay rarely need to create entities. Other types (such as those in lists made in code, or on a client
+ * connected to a remote server) are looked up the first time they are needed. Types no list refers to are never
+ * looked up at all.
+ */
+@SuppressWarnings( "unused" )
+public final class EntityClassCache {
+    
+    /** The class made by each entity type that has been looked up successfully. */
+    private static final Map<EntityType<?>, Class<? extends Entity>> CLASSES = new ConcurrentHashMap<>();
+    /** The entity types that have been looked up without finding a class. */
+    private static final Set<EntityType<?>> FAILED = ConcurrentHashMap.newKeySet();
+    
+    private static boolean registered;
+    
+    /** Starts looking up entity list types' classes when a server starts. Called by Crust during mod construction. */
+    public static void register() {
+        if( registered ) return;
+        registered = true;
+        MinecraftForge.EVENT_BUS.addListener( EntityClassCache::onServerStarted );
+    }
+    
+    /** Called when a server has started. Looks up the entity types named by every loaded entity list field. */
+    private static void onServerStarted( FMLServerStartedEvent event ) {
+        final World world = event.getServer().overworld();
+        final long start = System.nanoTime();
+        final int before = CLASSES.size() + FAILED.size();
+        for( ConfigManager manager : ConfigManager.getAll() ) {
+            for( AbstractConfigFile config : manager.getConfigs() ) {
+                for( AbstractConfigField field : config.SPEC.getFields().values() ) {
+                    if( field instanceof EntityListField ) ((EntityListField) field).get().loadClasses( world );
+                }
+            }
+        }
+        ConfigUtil.LOG.debug( "Looked up classes for {} entity types ({} without a class so far) in {} ms",
+                CLASSES.size() + FAILED.size() - before, FAILED.size(), (System.nanoTime() - start) / 1_000_000 );
+    }
+    
+    /** @return True if the entity type has been looked up, whether or not its class was found. */
+    public static boolean isResolved( EntityType<?> type ) { return CLASSES.containsKey( type ) || FAILED.contains( type ); }
+    
+    /**
+     * @return The class of entities made by the entity type, or null if it can't be found.
+     * The world is only used if the type hasn't been looked up yet.
+     */
+    @Nullable
+    public static Class<? extends Entity> get( EntityType<?> type, World world ) {
+        final Class<? extends Entity> cached = CLASSES.get( type );
+        if( cached != null || FAILED.contains( type ) ) return cached;
+        
+        // Threads racing to look up the same type can, at worst, repeat the work
+        final Class<? extends Entity> entityClass = find( type, world );
+        if( entityClass == null ) FAILED.add( type );
+        else CLASSES.put( type, entityClass );
+        return entityClass;
+    }
+    
+    /** @return Creates (and discards) an entity of the given type to find its class. Returns null if that fails. */
+    @Nullable
+    private static Class<? extends Entity> find( EntityType<?> type, World world ) {
+        try {
+            final Entity entity = type.create( world );
+            if( entity == null ) return null; // Not made through the type's factory, such as players
+            entity.remove();
+            return entity.getClass();
+        }
+        catch( Exception ex ) {
+            ConfigUtil.LOG.warn( "Failed to load class of entity type {}!", type.getRegistryName(), ex );
+            return null;
+        }
+    }
+
+}
\ No newline at end of file
@@ -28,10 +28,15 @@ public class EntityEntry {
     /** The values given to this entry. Null for comparison objects. */
     public final double[] VALUES;
     
+    /*
+     * The lazily loaded fields below are volatile so entries can be used from any thread. Each is only ever set to the
+     * same value, so threads racing to load one can, at worst, repeat the work.
+     */
+    
     /** The entity type this entry is defined for. If this is null, then this entry will match any entity. */
-    private EntityType<? extends Entity> entityType;
+    private volatile EntityType<? extends Entity> entityType;
     /** The class this entry is defined for. This is not assigned until a world has been loaded. */
-    Class<? extends Entity> entityClass;
+    volatile Class<? extends Entity> entityClass;
     
     /** Creates an entry used to compare entity classes internally with the entries in an entity list. */
     EntityEntry( Entity entity ) {
@@ -76,21 +81,16 @@ public class EntityEntry {
         return true;
     }
     
-    /** Called on this entry before using it to check if the entity class has been determined, and loads the class if it has not been. */
+    /**
+     * Called on this entry before using it to check if the entity class has been determined, and loads the class if it has not been.
+     * Entity types whose class can't be found are only matched by type.
+     *
+     * @see EntityClassCache
+     */
     void checkClass( World world ) {
-        if( validate() && entityType != null && entityClass == null ) {
-            try {
-                final Entity entity = entityType.create( world );
-                if( entity != null ) {
-                    entityClass = entity.getClass();
-                    entity.remove();
-                }
-            }
-            catch( Exception ex ) {
-                ConfigUtil.LOG.warn( "Failed to load class of entity type {}!", entityType );
-                ex.printStackTrace();
-            }
-        }
+        if( entityClass != null || !validate() ) return;
+        final EntityType<? extends Entity> type = entityType;
+        if( type != null ) entityClass = EntityClassCache.get( type, world );
     }
     
     /**
@@ -105,10 +105,14 @@ public class EntityEntry {
         // Handle default entries
         if( entityType == null ) return true;
         if( entry.entityType == null ) return false;
+        final Class<? extends Entity> thisClass = entityClass;
+        final Class<? extends Entity> otherClass = entry.entityClass;
+        // Entity types without a known class can only be matched by type
+        if( thisClass == null || otherClass == null ) return entityType == entry.entityType && !entry.EXTEND;
         // Same entity, but non-extendable is more specific
-        if( entityClass == entry.entityClass ) return !entry.EXTEND;
+        if( thisClass == otherClass ) return !entry.EXTEND;
         // Extendable entry, check if the other is for a subclass
-        if( EXTEND ) return entityClass.isAssignableFrom( entry.entityClass );
+        if( EXTEND ) return thisClass.isAssignableFrom( otherClass );
         // Non-extendable entries cannot contain other entries
         return false;
     }
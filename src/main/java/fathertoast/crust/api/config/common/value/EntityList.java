@@ -2,11 +2,17 @@ package fathertoast.crust.api.config.common.value;
 
 import fathertoast.crust.api.config.common.file.TomlHelper;
 import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
 import net.minecraft.entity.LivingEntity;
+import net.minecraft.world.World;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ObjDoubleConsumer;
 
 /**
  * A list of entity-value entries used to link one or more numbers to specific entity types.
@@ -14,8 +20,17 @@ import java.util.List;
 @SuppressWarnings( "unused" )
 public class EntityList implements IStringArray {
     
+    /** Collections smaller than this are not worth splitting across threads. */
+    private static final int PARALLEL_THRESHOLD = 1024;
+    
     /** The entity-value entries in this list. */
     private final EntityEntry[] ENTRIES;
+    /**
+     * The best-match entry index for each entity type queried so far, since the result only depends on the type
+     * (entries match by the type's class, or by the type itself when its class is unknown).
+     * Never cleared, since a config reload creates a new list.
+     */
+    private final Map<EntityType<?>, Integer> MATCH_INDICES = new ConcurrentHashMap<>();
     
     /** The number of values each entry must have. If this is negative, then entries may have any non-zero number of values. */
     private int entryValues = -1;
@@ -63,39 +78,116 @@ public class EntityList implements IStringArray {
         return list;
     }
     
-    /** @return True if the entity is contained in this list. */
-    public boolean contains( @Nullable Entity entity ) {
-        if( entity == null ) return false;
-        final EntityEntry targetEntry = new EntityEntry( entity );
-        for( EntityEntry currentEntry : ENTRIES ) {
-            currentEntry.checkClass( entity.level );
-            if( currentEntry.contains( targetEntry ) )
-                return true;
-        }
-        return false;
+    /**
+     * Loads the entity class of every entry's entity type now, so later queries don't need to.
+     * Crust calls this for every entity list config field when a server starts.
+     *
+     * @see EntityClassCache
+     */
+    public void loadClasses( World world ) {
+        for( EntityEntry entry : ENTRIES ) entry.checkClass( world );
     }
     
+    /** @return Returns true if there are no entries in this entity list. */
+    public boolean isEmpty() { return ENTRIES.length == 0; }
+    
+    /** @return True if the entity is contained in this list. */
+    public boolean contains( @Nullable Entity entity ) { return getMatchIndex( entity ) >= 0; }
+    
     /**
      * @param entity The entity to retrieve values for.
      * @return The array of values of the best-match entry. Returns null if the entity is not contained in this entity list.
      */
     @Nullable
     public double[] getValues( @Nullable Entity entity ) {
-        if( entity == null ) return null;
+        final int index = getMatchIndex( entity );
+        return index < 0 ? null : ENTRIES[index].VALUES;
+    }
+    
+    /**
+     * @param entity The entity to find the best-match entry for.
+     * @return The index of the best-match entry. Returns -1 if the entity is not contained in this entity list.
+     * @see #getEntryValues(int)
+     */
+    public int getMatchIndex( @Nullable Entity entity ) {
+        if( entity == null ) return -1;
+        final Integer cached = MATCH_INDICES.get( entity.getType() );
+        if( cached != null ) return cached;
+        
+        for( EntityEntry entry : ENTRIES ) entry.checkClass( entity.level );
+        final int index = findMatchIndex( entity );
+        MATCH_INDICES.put( entity.getType(), index );
+        return index;
+    }
+    
+    /** @return The index of the best-match entry, tested against every entry. Returns -1 if there is no match. */
+    private int findMatchIndex( Entity entity ) {
         final EntityEntry targetEntry = new EntityEntry( entity );
-        EntityEntry bestMatch = null;
-        for( EntityEntry currentEntry : ENTRIES ) {
-            currentEntry.checkClass( entity.level );
+        int bestMatch = -1;
+        for( int i = 0; i < ENTRIES.length; i++ ) {
+            final EntityEntry currentEntry = ENTRIES[i];
             // Immediately return if we match the most stringent entry possible
             if( !currentEntry.EXTEND && currentEntry.entityClass == targetEntry.entityClass ) {
-                return currentEntry.VALUES;
+                return i;
             }
             // Otherwise, update the best match if we match for the first time, or we match a more specific entry
-            else if( currentEntry.contains( targetEntry ) && (bestMatch == null || bestMatch.contains( currentEntry )) ) {
-                bestMatch = currentEntry;
+            else if( currentEntry.contains( targetEntry ) && (bestMatch < 0 || ENTRIES[bestMatch].contains( currentEntry )) ) {
+                bestMatch = i;
             }
         }
-        return bestMatch == null ? null : bestMatch.VALUES;
+        return bestMatch;
+    }
+    
+    /** @return The array of values of the entry at the given index. */
+    public double[] getEntryValues( int index ) { return ENTRIES[index].VALUES; }
+    
+    /** @return The first value of the entry at the given index, or 0 if it has no values. */
+    private double getFirstValue( int index ) {
+        final double[] values = ENTRIES[index].VALUES;
+        return values == null || values.length < 1 ? 0.0 : values[0];
+    }
+    
+    /**
+     * Passes each entity contained in this list to the action, along with the first value in its best-match entry
+     * (or 0 if it has no values; see {@link #getValue(Entity)}). Entities not in this list and null elements are skipped.
+     * <p>
+     * The match is only looked up once for each run of entities with the same type, and nothing is allocated per
+     * entity, so this is the fastest way to apply a list to many entities at once (such as every entity in a world).
+     */
+    public <T extends Entity> void forEachMatching( Iterable<T> entities, ObjDoubleConsumer<? super T> action ) {
+        EntityType<?> lastType = null;
+        int lastIndex = -1;
+        for( T entity : entities ) {
+            if( entity == null ) continue;
+            if( entity.getType() != lastType ) {
+                lastType = entity.getType();
+                lastIndex = getMatchIndex( entity );
+            }
+            if( lastIndex >= 0 ) action.accept( entity, getFirstValue( lastIndex ) );
+        }
+    }
+    
+    /**
+     * Same as {@link #forEachMatching(Iterable, ObjDoubleConsumer)}, but large collections are split across the common
+     * fork-join pool. The action must be safe to call from any thread and may be called in any order; the entities
+     * must not be changed by anything else until this returns.
+     */
+    public <T extends Entity> void forEachMatchingParallel( Collection<T> entities, ObjDoubleConsumer<? super T> action ) {
+        if( entities.size() < PARALLEL_THRESHOLD ) {
+            forEachMatching( entities, action );
+            return;
+        }
+        // Load the entries' classes first, so worker threads never need to look them up
+        for( T entity : entities ) {
+            if( entity == null ) continue;
+            for( EntityEntry entry : ENTRIES ) entry.checkClass( entity.level );
+            break;
+        }
+        entities.parallelStream().forEach( ( entity ) -> {
+            if( entity == null ) return;
+            final int index = getMatchIndex( entity );
+            if( index >= 0 ) action.accept( entity, getFirstValue( index ) );
+        } );
     }
     
     /**
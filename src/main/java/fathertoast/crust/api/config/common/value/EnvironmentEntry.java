@@ -4,6 +4,8 @@ import fathertoast.crust.api.config.common.ConfigManager;
 import fathertoast.crust.api.config.common.file.CrustConfigSpec;
 import fathertoast.crust.api.config.common.value.environment.AbstractEnvironment;
 import fathertoast.crust.api.config.common.value.environment.ComparisonOperator;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentContext;
+import fathertoast.crust.api.config.common.value.environment.WorldGenContext;
 import fathertoast.crust.api.config.common.value.environment.biome.*;
 import fathertoast.crust.api.config.common.value.environment.compat.ApocalypseDifficultyEnvironment;
 import fathertoast.crust.api.config.common.value.environment.compat.ApocalypseDifficultyOrTimeEnvironment;
@@ -50,6 +52,9 @@ public class EnvironmentEntry {
         CONDITIONS = conditions;
     }
     
+    /** @return The conditions that define this entry's environment, in the order they are written. Do not modify. */
+    AbstractEnvironment[] getConditions() { return CONDITIONS; }
+    
     /**
      * @return Returns true if all this entry's conditions match the provided environment.
      * @throws IllegalStateException If the position is not in a fully loaded chunk.
@@ -70,8 +75,33 @@ public class EnvironmentEntry {
      * May cause a world loading deadlock if the position is not in a fully loaded chunk.
      */
     boolean unsafeMatches( World world, @Nullable BlockPos pos ) {
+        final EnvironmentContext context = EnvironmentContext.acquire( world, pos );
+        try {
+            return matches( context );
+        }
+        finally {
+            context.release();
+        }
+    }
+    
+    /**
+     * @return Returns true if all this entry's conditions match the provided environment.
+     * May cause a world loading deadlock if the position is not in a fully loaded chunk.
+     */
+    public boolean matches( EnvironmentContext context ) {
+        for( AbstractEnvironment condition : CONDITIONS ) {
+            if( !condition.matches( context ) ) return false;
+        }
+        return true;
+    }
+    
+    /**
+     * @return Returns true if all this entry's conditions match the provided world generation environment.
+     * Conditions that can't be tested during world generation never match. Safe to call from world generation threads.
+     */
+    public boolean matches( WorldGenContext context ) {
         for( AbstractEnvironment condition : CONDITIONS ) {
-            if( !condition.matches( world, pos ) ) return false;
+            if( !condition.supportsWorldGen() || !condition.matches( context ) ) return false;
         }
         return true;
     }
@@ -0,0 +1,259 @@
+package fathertoast.crust.api.config.common.value;
+
+import fathertoast.crust.api.config.common.value.environment.EnvironmentContext;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentQueryCache;
+import fathertoast.crust.api.lib.EnvironmentHelper;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+import java.util.Arrays;
+
+/**
+ * A grid of values precomputed from an environment list over an area of a world, for features that sample the same
+ * list many times over the same area (such as spawn caps or ore density). Each cell holds the value at the center of
+ * a square of blocks at a single y-level.
+ * <p>
+ * Calling {@link #refresh()} only re-tests each entry's world-level conditions (such as time and weather), then
+ * recalculates just the cells whose result could have been changed by them. Changes to chunk- or block-level
+ * conditions are not picked up until {@link #recompute()} is called.
+ * <p>
+ * Heatmaps should only be used on the server thread. Do not hold on to a heatmap after its world is unloaded or its
+ * environment list is replaced by a config reload.
+ */
+@SuppressWarnings( "unused" )
+public final class EnvironmentHeatmap {
+    
+    /** The match index given to cells in chunks that were not loaded when the cell was last calculated. */
+    public static final int UNLOADED = -2;
+    
+    /** The environment list this heatmap was calculated from. */
+    public final EnvironmentList LIST;
+    /** The world this heatmap was calculated in. */
+    public final World WORLD;
+    /** The block x-coordinate of the heatmap's west edge. */
+    public final int MIN_X;
+    /** The block z-coordinate of the heatmap's north edge. */
+    public final int MIN_Z;
+    /** The y-level sampled for each cell. */
+    public final int Y;
+    /** The width (and length) of each cell, in blocks. */
+    public final int RESOLUTION;
+    /** The number of cells along the x-axis. */
+    public final int WIDTH;
+    /** The number of cells along the z-axis. */
+    public final int LENGTH;
+    /** The value used for cells where no entry matches. */
+    public final double DEFAULT_VALUE;
+    
+    private final CompiledEnvironmentList COMPILED;
+    /** The cell indices, ordered so that cells in the same chunk are next to each other. */
+    private final int[] ORDER;
+    
+    /** The value of each cell, by cell index (x + z * width). NaN for unloaded cells. */
+    private final float[] values;
+    /** The compiled index of the entry matching each cell, -1 if none matched, or {@link #UNLOADED}. */
+    private final int[] matches;
+    /** The entries whose world-level conditions passed when the heatmap was last calculated. */
+    private final long[] worldResults;
+    /** Used to test the current world-level conditions during a refresh. */
+    private final long[] newWorldResults;
+    
+    /**
+     * @return A new heatmap covering a single chunk.
+     * @throws IllegalArgumentException If the resolution is not positive.
+     */
+    public static EnvironmentHeatmap ofChunk( EnvironmentList list, World world, ChunkPos chunk, int y, int resolution,
+                                              double defaultValue ) {
+        return new EnvironmentHeatmap( list, world, chunk.getMinBlockX(), chunk.getMinBlockZ(), 16, 16,
+                y, resolution, defaultValue );
+    }
+    
+    /**
+     * Creates a new heatmap covering the given area and calculates every cell. If the size is not a multiple of the
+     * resolution, the cells along the east and south edges extend past the area.
+     *
+     * @param sizeX The size of the area along the x-axis, in blocks.
+     * @param sizeZ The size of the area along the z-axis, in blocks.
+     * @throws IllegalArgumentException If the size or resolution is not positive.
+     */
+    public EnvironmentHeatmap( EnvironmentList list, World world, int minX, int minZ, int sizeX, int sizeZ, int y,
+                               int resolution, double defaultValue ) {
+        if( sizeX <= 0 || sizeZ <= 0 || resolution <= 0 ) {
+            throw new IllegalArgumentException( "Heatmap size and resolution must be positive! Got " + sizeX + "x" +
+                    sizeZ + " blocks at " + resolution + " blocks per cell" );
+        }
+        LIST = list;
+        WORLD = world;
+        MIN_X = minX;
+        MIN_Z = minZ;
+        Y = y;
+        RESOLUTION = resolution;
+        WIDTH = (sizeX + resolution - 1) / resolution;
+        LENGTH = (sizeZ + resolution - 1) / resolution;
+        DEFAULT_VALUE = defaultValue;
+        
+        COMPILED = list.getCompiled();
+        ORDER = chunkOrder();
+        values = new float[WIDTH * LENGTH];
+        matches = new int[WIDTH * LENGTH];
+        worldResults = COMPILED.newFilter();
+        newWorldResults = COMPILED.newFilter();
+        recompute();
+    }
+    
+    /** @return The cell indices, sorted by chunk. Cells within each chunk stay in index order. */
+    private int[] chunkOrder() {
+        final int count = WIDTH * LENGTH;
+        final long[] keys = new long[count];
+        final Integer[] order = new Integer[count];
+        for( int i = 0; i < count; i++ ) {
+            keys[i] = ChunkPos.asLong( getCellX( i ) >> 4, getCellZ( i ) >> 4 );
+            order[i] = i;
+        }
+        Arrays.sort( order, ( a, b ) -> keys[a] != keys[b] ? Long.compare( keys[a], keys[b] ) : Integer.compare( a, b ) );
+        
+        final int[] result = new int[count];
+        for( int i = 0; i < count; i++ ) result[i] = order[i];
+        return result;
+    }
+    
+    /**
+     * Recalculates every cell in the heatmap.
+     *
+     * @return The number of cells recalculated.
+     */
+    public int recompute() {
+        final EnvironmentContext context = acquireContext();
+        try {
+            COMPILED.testWorldLevel( context, worldResults );
+            return calculate( context, 0, true );
+        }
+        finally {
+            context.release();
+        }
+    }
+    
+    /**
+     * Re-tests the world-level conditions and recalculates only the cells whose result could have changed because of
+     * them, along with any cells that were previously in unloaded chunks. Call this once per tick (or less often)
+     * before sampling the heatmap.
+     *
+     * @return The number of cells recalculated.
+     */
+    public int refresh() {
+        final EnvironmentContext context = acquireContext();
+        try {
+            COMPILED.testWorldLevel( context, newWorldResults );
+            
+            // Entries before the first changed entry give the same results as last time, so any cell that matched one
+            // of them is unchanged, and any other cell still fails all of them
+            int from = COMPILED.size();
+            for( int i = 0; i < worldResults.length; i++ ) {
+                final long changed = worldResults[i] ^ newWorldResults[i];
+                if( changed != 0L ) {
+                    from = (i << 6) + Long.numberOfTrailingZeros( changed );
+                    break;
+                }
+            }
+            System.arraycopy( newWorldResults, 0, worldResults, 0, worldResults.length );
+            return calculate( context, from, false );
+        }
+        finally {
+            context.release();
+        }
+    }
+    
+    /** @return A context for calculating cells, starting at the first cell. */
+    private EnvironmentContext acquireContext() { return EnvironmentContext.acquire( WORLD, new BlockPos( getCellX( 0 ), Y, getCellZ( 0 ) ) ); }
+    
+    /**
+     * Recalculates the cells that may have changed, testing only entries at or after the given index.
+     * Cells in unloaded chunks are always recalculated from the first entry.
+     *
+     * @param all If true, every cell is recalculated from the first entry.
+     * @return The number of cells recalculated.
+     */
+    private int calculate( EnvironmentContext context, int from, boolean all ) {
+        final boolean useCache = EnvironmentQueryCache.isAvailable( WORLD );
+        final BlockPos.Mutable pos = new BlockPos.Mutable();
+        final long[] memo = new long[2]; // Tested and passed bits, carried between cells
+        long lastChunk = 0L;
+        boolean loaded = false;
+        int count = 0;
+        
+        for( int i = 0; i < ORDER.length; i++ ) {
+            final int cell = ORDER[i];
+            final int start;
+            if( all || matches[cell] == UNLOADED ) start = 0;
+            else if( matches[cell] >= 0 ? matches[cell] < from : from >= COMPILED.size() ) continue; // Unchanged
+            else start = from;
+            
+            pos.set( getCellX( cell ), Y, getCellZ( cell ) );
+            final long chunk = ChunkPos.asLong( pos.getX() >> 4, pos.getZ() >> 4 );
+            if( count == 0 || chunk != lastChunk ) {
+                // Only world-level results carry over from the last chunk
+                memo[0] &= COMPILED.WORLD_MEMO;
+                memo[1] &= COMPILED.WORLD_MEMO;
+                lastChunk = chunk;
+                loaded = EnvironmentHelper.isLoaded( WORLD, pos );
+            }
+            count++;
+            if( !loaded ) {
+                matches[cell] = UNLOADED;
+                values[cell] = Float.NaN;
+                continue;
+            }
+            
+            // Only world- and chunk-level results carry over from the last cell
+            memo[0] &= COMPILED.CHUNK_MEMO;
+            memo[1] &= COMPILED.CHUNK_MEMO;
+            context.move( pos );
+            final int index = COMPILED.firstMatch( context, start, useCache, memo, worldResults );
+            matches[cell] = index;
+            values[cell] = (float) (index < 0 ? DEFAULT_VALUE : COMPILED.VALUES[index]);
+        }
+        return count;
+    }
+    
+    /** @return The block x-coordinate sampled for the cell index. */
+    private int getCellX( int cell ) { return MIN_X + (cell % WIDTH) * RESOLUTION + RESOLUTION / 2; }
+    
+    /** @return The block z-coordinate sampled for the cell index. */
+    private int getCellZ( int cell ) { return MIN_Z + (cell / WIDTH) * RESOLUTION + RESOLUTION / 2; }
+    
+    /** @return True if the block position is within this heatmap. */
+    public boolean contains( int x, int z ) {
+        return x >= MIN_X && z >= MIN_Z && (x - MIN_X) / RESOLUTION < WIDTH && (z - MIN_Z) / RESOLUTION < LENGTH;
+    }
+    
+    /**
+     * @return The value of the cell containing the block position, or Double.NaN if the cell's chunk was not loaded.
+     * @throws IllegalArgumentException If the position is not within this heatmap.
+     */
+    public double getValue( BlockPos pos ) { return getValue( pos.getX(), pos.getZ() ); }
+    
+    /**
+     * @return The value of the cell containing the block position, or Double.NaN if the cell's chunk was not loaded.
+     * @throws IllegalArgumentException If the position is not within this heatmap.
+     */
+    public double getValue( int x, int z ) {
+        if( !contains( x, z ) ) {
+            throw new IllegalArgumentException( "Position (" + x + ", " + z + ") is outside of the heatmap!" );
+        }
+        return values[(x - MIN_X) / RESOLUTION + (z - MIN_Z) / RESOLUTION * WIDTH];
+    }
+    
+    /** @return The value of the cell at the given cell coordinates, or Double.NaN if the cell's chunk was not loaded. */
+    public double getCellValue( int cellX, int cellZ ) { return values[cellX + cellZ * WIDTH]; }
+    
+    /**
+     * @return The index of the environment list entry matching the cell at the given cell coordinates, -1 if no entry
+     * matched, or {@link #UNLOADED} if the cell's chunk was not loaded.
+     * @see EnvironmentList#getEntryValue(int)
+     */
+    public int getCellMatchIndex( int cellX, int cellZ ) {
+        final int index = matches[cellX + cellZ * WIDTH];
+        return index < 0 ? index : COMPILED.SOURCE_INDICES[index];
+    }
+}
\ No newline at end of file
@@ -2,6 +2,8 @@ package fathertoast.crust.api.config.common.value;
 
 import fathertoast.crust.api.config.common.field.DoubleField;
 import fathertoast.crust.api.config.common.file.TomlHelper;
+import fathertoast.crust.api.config.common.value.environment.AbstractEnvironment;
+import fathertoast.crust.api.config.common.value.environment.WorldGenContext;
 import fathertoast.crust.api.lib.EnvironmentHelper;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.IWorldReader;
@@ -19,6 +21,8 @@ public class EnvironmentList implements IStringArray {
     
     /** The condition-value entries in this list. */
     private final EnvironmentEntry[] ENTRIES;
+    /** The optimized form of the entries, used to actually evaluate this list. */
+    private final CompiledEnvironmentList COMPILED;
     
     /** The minimum value accepted for entry values in this list. */
     private double minValue = Double.NEGATIVE_INFINITY;
@@ -39,7 +43,10 @@ public class EnvironmentList implements IStringArray {
      * By default, environment list value(s) can be any numerical double.
      * This can be changed with helper methods that alter values' bounds and return 'this'.
      */
-    public EnvironmentList( EnvironmentEntry... entries ) { ENTRIES = entries; }
+    public EnvironmentList( EnvironmentEntry... entries ) {
+        ENTRIES = entries;
+        COMPILED = new CompiledEnvironmentList( entries );
+    }
     
     /** @return A string representation of this object. */
     @Override
@@ -74,6 +81,12 @@ public class EnvironmentList implements IStringArray {
     @Nullable
     public Double get( World world ) { return unsafeGet( world, null ); }
     
+    /**
+     * @return The value matching the given environment, or Double.NaN if no matching environment is defined.
+     * Unlike {@link #get(World)}, this never boxes the value.
+     */
+    public double getAsDouble( World world ) { return unsafeGetOrElse( world, null, Double.NaN ); }
+    
     /**
      * @return The value matching the given environment, or the default value if no matching environment is defined.
      * @throws IllegalStateException If the position is not in a fully loaded chunk.
@@ -105,6 +118,155 @@ public class EnvironmentList implements IStringArray {
         return unsafeGet( world, pos );
     }
     
+    /**
+     * @return The value matching the given environment, or Double.NaN if no matching environment is defined.
+     * Unlike {@link #get(World, BlockPos)}, this never boxes the value.
+     * @throws IllegalStateException If the position is not in a fully loaded chunk.
+     * @see EnvironmentHelper#isLoaded(IWorldReader, BlockPos)
+     */
+    public double getAsDouble( World world, BlockPos pos ) {
+        validatePos( world, pos );
+        return unsafeGetOrElse( world, pos, Double.NaN );
+    }
+    
+    /**
+     * @return The value matching the given world generation environment, or the default value if no matching environment
+     * is defined. Safe to call from world generation threads. Conditions that can't be tested during world generation
+     * never match, so entries containing them are skipped.
+     * @see #supportsWorldGen()
+     */
+    public double getOrElse( WorldGenContext context, DoubleField defaultValue ) { return getOrElse( context, defaultValue.get() ); }
+    
+    /**
+     * @return The value matching the given world generation environment, or the default value if no matching environment
+     * is defined. Safe to call from world generation threads. Conditions that can't be tested during world generation
+     * never match, so entries containing them are skipped.
+     * @see #supportsWorldGen()
+     */
+    public double getOrElse( WorldGenContext context, double defaultValue ) {
+        final int index = COMPILED.firstMatch( context );
+        return index < 0 ? defaultValue : COMPILED.VALUES[index];
+    }
+    
+    /**
+     * @return The value matching the given world generation environment, or null if no matching environment is defined.
+     * Safe to call from world generation threads. Conditions that can't be tested during world generation never match,
+     * so entries containing them are skipped.
+     * @see #supportsWorldGen()
+     */
+    @Nullable
+    public Double get( WorldGenContext context ) {
+        final int index = COMPILED.firstMatch( context );
+        return index < 0 ? null : COMPILED.VALUES[index];
+    }
+    
+    /**
+     * @return The value matching the given world generation environment, or Double.NaN if no matching environment is
+     * defined. Safe to call from world generation threads. Conditions that can't be tested during world generation never
+     * match, so entries containing them are skipped.
+     * @see #supportsWorldGen()
+     */
+    public double getAsDouble( WorldGenContext context ) { return getOrElse( context, Double.NaN ); }
+    
+    /**
+     * @return True if every condition in this list can be tested during world generation.
+     * Mods using this list during world generation may want to warn the user if this is false.
+     * @see AbstractEnvironment#supportsWorldGen()
+     */
+    public boolean supportsWorldGen() { return COMPILED.SUPPORTS_WORLD_GEN; }
+    
+    /**
+     * @return The index of the entry matching the given environment, or -1 if no matching environment is defined.
+     * @see #getEntryValue(int)
+     */
+    public int getMatchIndex( World world ) { return unsafeGetMatchIndex( world, null ); }
+    
+    /**
+     * @return The index of the entry matching the given environment, or -1 if no matching environment is defined.
+     * @throws IllegalStateException If the position is not in a fully loaded chunk.
+     * @see EnvironmentHelper#isLoaded(IWorldReader, BlockPos)
+     * @see #getEntryValue(int)
+     */
+    public int getMatchIndex( World world, BlockPos pos ) {
+        validatePos( world, pos );
+        return unsafeGetMatchIndex( world, pos );
+    }
+    
+    /**
+     * @return The index of the entry matching the given world generation environment, or -1 if no matching environment
+     * is defined. Safe to call from world generation threads.
+     * @see #getEntryValue(int)
+     */
+    public int getMatchIndex( WorldGenContext context ) {
+        final int index = COMPILED.firstMatch( context );
+        return index < 0 ? -1 : COMPILED.SOURCE_INDICES[index];
+    }
+    
+    /**
+     * @return A record of every entry and condition tested to find the value for the given environment, with the time
+     * each condition took. This is much slower than a normal query; it is meant for debugging configs.
+     */
+    public EnvironmentTrace trace( World world ) { return EnvironmentTrace.of( ENTRIES, COMPILED, world, null ); }
+    
+    /**
+     * @return A record of every entry and condition tested to find the value for the given environment, with the time
+     * each condition took. This is much slower than a normal query; it is meant for debugging configs.
+     * @throws IllegalStateException If the position is not in a fully loaded chunk.
+     * @see EnvironmentHelper#isLoaded(IWorldReader, BlockPos)
+     */
+    public EnvironmentTrace trace( World world, BlockPos pos ) {
+        validatePos( world, pos );
+        return EnvironmentTrace.of( ENTRIES, COMPILED, world, pos );
+    }
+    
+    /** @return The optimized form of this list's entries. */
+    CompiledEnvironmentList getCompiled() { return COMPILED; }
+    
+    /** @return The value of the entry at the given index. */
+    public double getEntryValue( int index ) { return ENTRIES[index].VALUE; }
+    
+    /**
+     * Fills the output array with the value matching each position, or the default value where no entry matches.
+     * This is much faster than querying each position separately when many positions are checked at once,
+     * since world- and chunk-level conditions are only tested once per world and chunk.
+     *
+     * @param out The array to fill. Must be at least as long as the positions array.
+     * @throws IllegalStateException If any position is not in a fully loaded chunk.
+     * @see EnvironmentHelper#isLoaded(IWorldReader, BlockPos)
+     */
+    public void getAll( World world, BlockPos[] positions, double defaultValue, double[] out ) {
+        validateOutput( positions.length, out );
+        for( BlockPos pos : positions ) validatePos( world, pos );
+        COMPILED.getAll( world, positions.length, ( i ) -> positions[i].asLong(), defaultValue, out );
+    }
+    
+    /**
+     * Fills the output array with the value matching each position, or the default value where no entry matches.
+     * This is much faster than querying each position separately when many positions are checked at once,
+     * since world- and chunk-level conditions are only tested once per world and chunk.
+     *
+     * @param positions The positions to check, packed with {@link BlockPos#asLong()}.
+     * @param out       The array to fill. Must be at least as long as the positions array.
+     * @throws IllegalStateException If any position is not in a fully loaded chunk.
+     * @see EnvironmentHelper#isLoaded(IWorldReader, BlockPos)
+     */
+    public void getAll( World world, long[] positions, double defaultValue, double[] out ) {
+        validateOutput( positions.length, out );
+        for( long pos : positions ) {
+            if( !EnvironmentHelper.isLoaded( world, BlockPos.getX( pos ), BlockPos.getZ( pos ) ) ) {
+                throw new IllegalStateException( "Attempted to query world data in an unloaded chunk. This is bad!" );
+            }
+        }
+        COMPILED.getAll( world, positions.length, ( i ) -> positions[i], defaultValue, out );
+    }
+    
+    /** @throws IllegalArgumentException If the output array is too small. */
+    private void validateOutput( int count, double[] out ) {
+        if( out.length < count ) {
+            throw new IllegalArgumentException( "Output array is too small! Needs " + count + " but has " + out.length );
+        }
+    }
+    
     /** @throws IllegalStateException If the position is not in a fully loaded chunk. */
     private void validatePos( World world, BlockPos pos ) {
         if( !EnvironmentHelper.isLoaded( world, pos ) ) {
@@ -125,8 +287,8 @@ public class EnvironmentList implements IStringArray {
      * May cause a world loading deadlock if the position is not in a fully loaded chunk.
      */
     private double unsafeGetOrElse( World world, @Nullable BlockPos pos, double defaultValue ) {
-        final Double value = unsafeGet( world, pos );
-        return value == null ? defaultValue : value;
+        final int index = COMPILED.firstMatch( world, pos );
+        return index < 0 ? defaultValue : COMPILED.VALUES[index];
     }
     
     /**
@@ -135,10 +297,17 @@ public class EnvironmentList implements IStringArray {
      */
     @Nullable
     private Double unsafeGet( World world, @Nullable BlockPos pos ) {
-        for( EnvironmentEntry entry : ENTRIES ) {
-            if( entry.unsafeMatches( world, pos ) ) return entry.VALUE;
-        }
-        return null;
+        final int index = COMPILED.firstMatch( world, pos );
+        return index < 0 ? null : COMPILED.VALUES[index];
+    }
+    
+    /**
+     * @return The index of the entry matching the given environment, or -1 if no matching environment is defined.
+     * May cause a world loading deadlock if the position is not in a fully loaded chunk.
+     */
+    private int unsafeGetMatchIndex( World world, @Nullable BlockPos pos ) {
+        final int index = COMPILED.firstMatch( world, pos );
+        return index < 0 ? -1 : COMPILED.SOURCE_INDICES[index];
     }
     
     /** Bounds entry values in this list to the specified range. */
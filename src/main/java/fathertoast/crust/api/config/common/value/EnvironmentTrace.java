@@ -0,0 +1,202 @@
+package fathertoast.crust.api.config.common.value;
+
+import fathertoast.crust.api.config.common.value.environment.AbstractEnvironment;
+import fathertoast.crust.api.config.common.value.environment.CompareFloatEnvironment;
+import fathertoast.crust.api.config.common.value.environment.CompareIntEnvironment;
+import fathertoast.crust.api.config.common.value.environment.CompareLongEnvironment;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentContext;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A record of how an environment list picked its value for a single environment, for tracking down wrong or slow
+ * config values. Made by {@link EnvironmentList#trace(World, BlockPos)}.
+ * <p>
+ * Entries are tried in file order, up to and including the first entry that matches. Unlike normal evaluation, every
+ * condition in each tried entry is tested (even after one fails) and nothing is cached or shared between entries, so
+ * the time recorded for each condition is its full cost. The chosen entry is always the same as normal evaluation.
+ */
+@SuppressWarnings( "unused" )
+public final class EnvironmentTrace {
+    
+    /** The index of the matching entry, or -1 if no entry matched. */
+    public final int MATCH_INDEX;
+    /** The value of the matching entry, or Double.NaN if no entry matched. */
+    public final double VALUE;
+    /** The total time spent testing conditions, in nanoseconds. */
+    public final long NANOS;
+    /** Every entry tried, in file order. */
+    public final List<Entry> ENTRIES;
+    
+    /**
+     * @return A trace of the list's entries in the given environment.
+     * May cause a world loading deadlock if the position is not in a fully loaded chunk.
+     */
+    static EnvironmentTrace of( EnvironmentEntry[] entries, CompiledEnvironmentList compiled, World world, @Nullable BlockPos pos ) {
+        final EnvironmentContext context = EnvironmentContext.acquire( world, pos );
+        try {
+            final List<Entry> traced = new ArrayList<>();
+            int matchIndex = -1;
+            for( int i = 0; i < entries.length && matchIndex < 0; i++ ) {
+                final Entry entry = new Entry( i, entries[i], isReachable( compiled, i ), context );
+                traced.add( entry );
+                if( entry.MATCHED ) matchIndex = i;
+            }
+            return new EnvironmentTrace( matchIndex, matchIndex < 0 ? Double.NaN : entries[matchIndex].VALUE, traced );
+        }
+        finally {
+            context.release();
+        }
+    }
+    
+    /** @return True if the compiled list kept the entry; other entries can never be chosen. */
+    private static boolean isReachable( CompiledEnvironmentList compiled, int index ) {
+        for( int source : compiled.SOURCE_INDICES ) {
+            if( source == index ) return true;
+        }
+        return false;
+    }
+    
+    private EnvironmentTrace( int matchIndex, double value, List<Entry> entries ) {
+        MATCH_INDEX = matchIndex;
+        VALUE = value;
+        ENTRIES = Collections.unmodifiableList( entries );
+        long nanos = 0L;
+        for( Entry entry : entries ) nanos += entry.NANOS;
+        NANOS = nanos;
+    }
+    
+    /** @return The slowest condition tested, or null if no conditions were tested. */
+    @Nullable
+    public Condition getSlowest() {
+        Condition slowest = null;
+        for( Entry entry : ENTRIES ) {
+            for( Condition condition : entry.CONDITIONS ) {
+                if( slowest == null || condition.NANOS > slowest.NANOS ) slowest = condition;
+            }
+        }
+        return slowest;
+    }
+    
+    /** @return A few lines describing the trace; a summary line, then each entry followed by its conditions. */
+    public List<String> report() {
+        final List<String> report = new ArrayList<>();
+        report.add( String.format( Locale.ROOT, "%s - tried=%d, total=%.1f us",
+                MATCH_INDEX < 0 ? "No match" : "Matched #" + MATCH_INDEX + " = " + VALUE, ENTRIES.size(), NANOS / 1000.0 ) );
+        for( Entry entry : ENTRIES ) {
+            report.add( entry.toString() );
+            for( Condition condition : entry.CONDITIONS ) report.add( "    " + condition );
+        }
+        final Condition slowest = getSlowest();
+        if( slowest != null ) report.add( String.format( Locale.ROOT, "Slowest: %s (%.1f us)", slowest.CONDITION, slowest.NANOS / 1000.0 ) );
+        return report;
+    }
+    
+    /** @return A string representation of this object. */
+    @Override
+    public String toString() { return String.join( "\n", report() ); }
+    
+    /** The record of a single entry tried. */
+    public static final class Entry {
+        
+        /** The index of the entry within its list. */
+        public final int INDEX;
+        /** The entry's value. */
+        public final double VALUE;
+        /** True if every one of the entry's conditions matched. */
+        public final boolean MATCHED;
+        /**
+         * False if the entry can never be chosen, because it has contradicting conditions or an earlier entry
+         * always matches first. Normal evaluation skips these entries.
+         */
+        public final boolean REACHABLE;
+        /** The time spent testing the entry's conditions, in nanoseconds. */
+        public final long NANOS;
+        /** The result of each of the entry's conditions, in file order. */
+        public final List<Condition> CONDITIONS;
+        
+        private Entry( int index, EnvironmentEntry entry, boolean reachable, EnvironmentContext context ) {
+            INDEX = index;
+            VALUE = entry.VALUE;
+            REACHABLE = reachable;
+            
+            final AbstractEnvironment[] conditions = entry.getConditions();
+            final List<Condition> traced = new ArrayList<>( conditions.length );
+            boolean matched = true;
+            long nanos = 0L;
+            for( AbstractEnvironment condition : conditions ) {
+                final Condition result = new Condition( condition, context );
+                traced.add( result );
+                if( !result.RESULT ) matched = false;
+                nanos += result.NANOS;
+            }
+            MATCHED = matched;
+            NANOS = nanos;
+            CONDITIONS = Collections.unmodifiableList( traced );
+        }
+        
+        /** @return A single line describing the entry. */
+        @Override
+        public String toString() {
+            return String.format( Locale.ROOT, "#%d %s - value=%s, time=%.1f us", INDEX,
+                    MATCHED ? "matched" : REACHABLE ? "failed" : "failed (unreachable)", VALUE, NANOS / 1000.0 );
+        }
+    }
+    
+    /** The record of a single condition tested. */
+    public static final class Condition {
+        
+        /** The condition tested. */
+        public final AbstractEnvironment CONDITION;
+        /** True if the condition matched. */
+        public final boolean RESULT;
+        /**
+         * For comparison conditions, the actual value compared against the condition's value;
+         * null for other conditions or if there wasn't enough information to get the value.
+         */
+        @Nullable
+        public final Number ACTUAL;
+        /** The time spent testing the condition, in nanoseconds. Does not include getting the actual value. */
+        public final long NANOS;
+        
+        private Condition( AbstractEnvironment condition, EnvironmentContext context ) {
+            CONDITION = condition;
+            final long start = System.nanoTime();
+            RESULT = condition.matches( context );
+            NANOS = System.nanoTime() - start;
+            ACTUAL = actualOf( condition, context );
+        }
+        
+        /** @return The actual value compared by the condition, or null if it isn't a comparison or has no value. */
+        @Nullable
+        private static Number actualOf( AbstractEnvironment condition, EnvironmentContext context ) {
+            if( condition instanceof CompareFloatEnvironment ) {
+                final float actual = ((CompareFloatEnvironment) condition).getActual( context );
+                return Float.isNaN( actual ) ? null : actual;
+            }
+            if( condition instanceof CompareIntEnvironment ) {
+                final int actual = ((CompareIntEnvironment) condition).getActual( context );
+                return actual == CompareIntEnvironment.NO_VALUE ? null : actual;
+            }
+            if( condition instanceof CompareLongEnvironment ) {
+                final long actual = ((CompareLongEnvironment) condition).getActual( context );
+                return actual == CompareLongEnvironment.NO_VALUE ? null : actual;
+            }
+            return null;
+        }
+        
+        /** @return A single line describing the condition. */
+        @Override
+        public String toString() {
+            return String.format( Locale.ROOT, "%s %s%s - time=%.1f us", RESULT ? "+" : "-", CONDITION,
+                    ACTUAL == null ? "" : " (actual " + ACTUAL + ")", NANOS / 1000.0 );
+        }
+    }
+
+}
\ No newline at end of file
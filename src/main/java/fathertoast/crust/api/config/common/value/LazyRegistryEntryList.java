@@ -22,8 +22,11 @@ public class LazyRegistryEntryList<T extends IForgeRegistryEntry<T>> extends Reg
     
     /** The field containing this list. We save a reference to help improve error/warning reports. */
     private final AbstractConfigField FIELD;
-    /** True if the underlying set has been populated from the print list. */
-    private boolean populated;
+    /**
+     * True if the underlying set has been populated from the print list. Only set once the set is complete, so any thread
+     * that sees this as true will also see the whole set.
+     */
+    private volatile boolean populated;
     
     /**
      * Create a new registry entry list from an array of entries. Used for creating default configs.
@@ -86,11 +89,19 @@ public class LazyRegistryEntryList<T extends IForgeRegistryEntry<T>> extends Reg
         }
     }
     
-    /** Fills out the registry entry set with the actual registry entries. */
+    /** Fills out the registry entry set with the actual registry entries. Safe to call from any thread. */
     private void populateEntries() {
         if( populated ) return;
-        populated = true;
-        
+        synchronized( this ) {
+            if( !populated ) {
+                populateEntriesLocked();
+                populated = true;
+            }
+        }
+    }
+    
+    /** Fills out the registry entry set. Only called once, while holding this list's lock. */
+    private void populateEntriesLocked() {
         for( String line : PRINT_LIST ) {
             if( line.endsWith( "*" ) ) {
                 // Handle special case; add all entries in namespace
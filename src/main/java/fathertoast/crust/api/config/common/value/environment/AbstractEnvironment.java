@@ -7,6 +7,19 @@ import javax.annotation.Nullable;
 import java.util.Objects;
 
 public abstract class AbstractEnvironment {
+    
+    /** The world state (which is unique to each world) this environment was last tested with at world level. */
+    @Nullable
+    private WorldStateSnapshot memoState;
+    /** The world state's epoch when this environment was last tested at world level. */
+    private long memoEpoch;
+    /** The last game time the remembered world-level result is valid for. */
+    private long memoUntil;
+    /** Whether the last world-level test was made with a position, since a few environments check for one. */
+    private boolean memoHasPos;
+    /** The result of the last world-level test. */
+    private boolean memoResult;
+    
     /** @return The string representation of this environment, as it would appear in a config file. */
     @Override
     public final String toString() {
@@ -26,4 +39,85 @@ public abstract class AbstractEnvironment {
     
     /** @return Returns true if this environment matches the provided environment. */
     public abstract boolean matches( World world, @Nullable BlockPos pos );
+    
+    /**
+     * @return Returns true if this environment matches the provided environment.
+     * Override this to use the context's shared world data instead of looking it up again. By default, this
+     * simply calls {@link #matches(World, BlockPos)}.
+     */
+    public boolean matches( EnvironmentContext context ) { return matches( context.getWorld(), context.getPos() ); }
+    
+    /**
+     * @return Returns true if this environment matches the provided environment, tested through a reused context.
+     * For environments that only really implement {@link #matches(EnvironmentContext)}, to use in their
+     * {@link #matches(World, BlockPos)} without creating a new context for each call.
+     */
+    protected final boolean matchesInContext( World world, @Nullable BlockPos pos ) {
+        final EnvironmentContext context = EnvironmentContext.acquire( world, pos );
+        try {
+            return matches( context );
+        }
+        finally {
+            context.release();
+        }
+    }
+    
+    /**
+     * @return Returns true if this environment matches the provided environment, reusing the last result in the same
+     * world if it is still valid (see {@link #getStableUntil(EnvironmentContext)}). Only valid for environments with
+     * {@link EnvironmentScope#WORLD} scope, and only remembered for queries made on the server thread; since identical
+     * conditions are shared, one test serves every environment list that uses this instance.
+     */
+    public final boolean matchesMemoized( EnvironmentContext context ) {
+        if( !EnvironmentQueryCache.isAvailable( context.getWorld() ) ) return matches( context );
+        
+        final WorldStateSnapshot state = context.getWorldState();
+        final boolean hasPos = context.getPos() != null;
+        if( memoState != state || memoEpoch != state.getEpoch() || state.getGameTime() > memoUntil || memoHasPos != hasPos ) {
+            memoResult = matches( context );
+            memoState = state;
+            memoEpoch = state.getEpoch();
+            memoUntil = getStableUntil( context );
+            memoHasPos = hasPos;
+        }
+        return memoResult;
+    }
+    
+    /**
+     * @return The last game time that this world-level environment's current result is sure to stay the same through,
+     * as long as no world event happens first (see {@link WorldStateSnapshot#getEpoch()}). Only used for environments
+     * with {@link EnvironmentScope#WORLD} scope. By default, results are only valid for the current tick; override this
+     * for environments that only change on events or at predictable times.
+     */
+    public long getStableUntil( EnvironmentContext context ) { return context.getWorldState().getGameTime(); }
+    
+    /**
+     * @return True if this environment can be tested during world generation with {@link #matches(WorldGenContext)}.
+     * Override this (along with that method) for environments that only need the position, biome, or dimension type.
+     */
+    public boolean supportsWorldGen() { return false; }
+    
+    /**
+     * @return Returns true if this environment matches the provided world generation environment. This may be called
+     * from any thread. Only called if {@link #supportsWorldGen()} returns true; by default, this never matches.
+     */
+    public boolean matches( WorldGenContext context ) { return false; }
+    
+    /**
+     * @return The area over which this environment's result is the same during a single tick.
+     * Override this for environments that do not depend on the exact block position, so their results can be reused.
+     */
+    public EnvironmentScope getScope() { return EnvironmentScope.BLOCK; }
+    
+    /**
+     * @return A rough estimate of how expensive this environment is to test. Used to test cheap conditions first.
+     * By default, this is based on the environment's scope.
+     */
+    public EnvironmentCost getCost() {
+        switch( getScope() ) {
+            case WORLD: return EnvironmentCost.PER_WORLD;
+            case CHUNK: return EnvironmentCost.PER_COLUMN;
+            default: return EnvironmentCost.PER_BLOCK;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,165 @@
+package fathertoast.crust.api.config.common.value.environment;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.util.Util;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.biome.BiomeContainer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkStatus;
+import net.minecraft.world.chunk.IChunk;
+import net.minecraft.world.gen.feature.structure.Structure;
+import net.minecraft.world.server.ServerWorld;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Facts about a loaded chunk that can't change once the chunk is generated, which environments use to skip world
+ * lookups. Currently, these are the structures that reach into the chunk and every biome that can be found in it.
+ * <p>
+ * Facts are gathered when a chunk is fully loaded on the server. The chunk's structure references are copied right
+ * away, while its biomes are worked out from the biome data of it and its neighbors on a background thread. Until
+ * that is done (or for chunks loaded any other way), there are no facts for the chunk and environments simply query
+ * the world as normal.
+ */
+@SuppressWarnings( "unused" )
+public final class ChunkFacts {
+    
+    /** The number of noise biome cells in each column of a chunk's biome data. */
+    private static final int BIOME_HEIGHT = 64;
+    
+    /** The facts for each loaded chunk, by world. Only used from the server thread. */
+    private static final Map<ServerWorld, Long2ObjectMap<ChunkFacts>> INDICES = new IdentityHashMap<>();
+    
+    private static boolean registered;
+    
+    /** Starts gathering facts for chunks as they load. Called by Crust during mod construction. */
+    public static void register() {
+        if( registered ) return;
+        registered = true;
+        MinecraftForge.EVENT_BUS.addListener( ChunkFacts::onChunkLoad );
+        MinecraftForge.EVENT_BUS.addListener( ChunkFacts::onChunkUnload );
+        MinecraftForge.EVENT_BUS.addListener( ChunkFacts::onWorldUnload );
+    }
+    
+    /**
+     * @return The facts for the chunk, or null if they are not available (yet). Always null when not called from the
+     * server thread.
+     */
+    @Nullable
+    public static ChunkFacts get( World world, int chunkX, int chunkZ ) {
+        if( !EnvironmentQueryCache.isAvailable( world ) ) return null;
+        final Long2ObjectMap<ChunkFacts> index = INDICES.get( world );
+        if( index == null ) return null;
+        final ChunkFacts facts = index.get( ChunkPos.asLong( chunkX, chunkZ ) );
+        return facts == null || facts.biomes == null ? null : facts;
+    }
+    
+    /** Called when any chunk is loaded. Starts gathering facts for fully loaded server chunks. */
+    private static void onChunkLoad( ChunkEvent.Load event ) {
+        final IWorld world = event.getWorld();
+        if( !(world instanceof ServerWorld) || !(event.getChunk() instanceof Chunk) ||
+                !((ServerWorld) world).getServer().isSameThread() ) return;
+        final ServerWorld serverWorld = (ServerWorld) world;
+        final Chunk chunk = (Chunk) event.getChunk();
+        final ChunkPos chunkPos = chunk.getPos();
+        
+        // Grab the biome data the background task needs while on the server thread; chunk lookups aren't thread-safe
+        final BiomeContainer[] containers = new BiomeContainer[9];
+        for( int dz = -1; dz <= 1; dz++ ) {
+            for( int dx = -1; dx <= 1; dx++ ) {
+                // Same lookup as World#getNoiseBiome
+                final IChunk neighbor = dx == 0 && dz == 0 ? chunk :
+                        serverWorld.getChunk( chunkPos.x + dx, chunkPos.z + dz, ChunkStatus.BIOMES, false );
+                if( neighbor == null || neighbor.getBiomes() == null ) return; // Would need the biome source; not worth it
+                containers[(dz + 1) * 3 + dx + 1] = neighbor.getBiomes();
+            }
+        }
+        
+        final Set<Structure<?>> structures = chunk.getAllReferences().isEmpty() ? Collections.emptySet() :
+                Collections.unmodifiableSet( new HashSet<>( chunk.getAllReferences().keySet() ) );
+        final ChunkFacts facts = new ChunkFacts( structures );
+        INDICES.computeIfAbsent( serverWorld, ( key ) -> new Long2ObjectOpenHashMap<>() ).put( chunkPos.toLong(), facts );
+        Util.backgroundExecutor().execute( () -> facts.biomes = findBiomes( containers, chunkPos ) );
+    }
+    
+    /**
+     * @return Every biome that the world could return for any position in the chunk.
+     * The vanilla biome zoom picks between the noise biomes within one cell of the position, so this takes every noise
+     * biome from one cell before the chunk to one cell past it, at all heights.
+     */
+    private static Biome[] findBiomes( BiomeContainer[] containers, ChunkPos chunkPos ) {
+        final List<Biome> biomes = new ArrayList<>( 4 );
+        final int minX = chunkPos.x << 2;
+        final int minZ = chunkPos.z << 2;
+        for( int z = minZ - 1; z <= minZ + 4; z++ ) {
+            for( int x = minX - 1; x <= minX + 4; x++ ) {
+                final BiomeContainer container = containers[((z >> 2) - chunkPos.z + 1) * 3 + (x >> 2) - chunkPos.x + 1];
+                for( int y = 0; y < BIOME_HEIGHT; y++ ) {
+                    final Biome biome = container.getNoiseBiome( x, y, z );
+                    if( !biomes.contains( biome ) ) biomes.add( biome );
+                }
+            }
+        }
+        return biomes.toArray( new Biome[0] );
+    }
+    
+    /** Called when any chunk is unloaded. Drops the chunk's facts. */
+    private static void onChunkUnload( ChunkEvent.Unload event ) {
+        final IWorld world = event.getWorld();
+        if( !(world instanceof ServerWorld) || !((ServerWorld) world).getServer().isSameThread() ) return;
+        final Long2ObjectMap<ChunkFacts> index = INDICES.get( world );
+        if( index != null ) index.remove( event.getChunk().getPos().toLong() );
+    }
+    
+    /** Called when any world is unloaded. Drops the facts for all the world's chunks. */
+    private static void onWorldUnload( WorldEvent.Unload event ) {
+        final IWorld world = event.getWorld();
+        if( world instanceof ServerWorld ) INDICES.remove( world );
+    }
+    
+    /** The structures with references in the chunk. */
+    private final Set<Structure<?>> STRUCTURES;
+    /** Every biome that can be found in the chunk. Null until the background task is done. */
+    @Nullable
+    private volatile Biome[] biomes;
+    
+    private ChunkFacts( Set<Structure<?>> structures ) { STRUCTURES = structures; }
+    
+    /**
+     * @return False if the structure is definitely not at any position in the chunk. Note that true does not mean the
+     * structure is actually at any particular position.
+     */
+    public boolean mayContain( @Nullable Structure<?> structure ) { return STRUCTURES.contains( structure ); }
+    
+    /** @return False if there are definitely no structures at any position in the chunk. */
+    public boolean mayContainStructures() { return !STRUCTURES.isEmpty(); }
+    
+    /** @return False if the biome is definitely not at any position in the chunk. */
+    public boolean mayContain( @Nullable Biome biome ) {
+        for( Biome candidate : getBiomes() ) {
+            if( candidate == biome ) return true;
+        }
+        return false;
+    }
+    
+    /** @return The biome at every position in the chunk, or null if the chunk may have more than one biome. */
+    @Nullable
+    public Biome getOnlyBiome() {
+        final Biome[] all = getBiomes();
+        return all.length == 1 ? all[0] : null;
+    }
+    
+    /** @return Every biome that can be found in the chunk. Do not modify the returned array. */
+    public Biome[] getBiomes() {
+        //noinspection ConstantConditions - never given out before the biomes are set
+        return biomes;
+    }
+}
\ No newline at end of file
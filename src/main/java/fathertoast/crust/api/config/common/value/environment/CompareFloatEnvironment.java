@@ -82,7 +82,48 @@ public abstract class CompareFloatEnvironment extends AbstractEnvironment {
         return !Float.isNaN( actual ) && COMPARATOR.apply( actual, VALUE );
     }
     
+    /** @return Returns true if this environment matches the provided environment. */
+    @Override
+    public boolean matches( EnvironmentContext context ) {
+        final float actual = getActual( context );
+        return !Float.isNaN( actual ) && COMPARATOR.apply( actual, VALUE );
+    }
+    
+    /** @return Returns true if this environment matches the provided world generation environment. */
+    @Override
+    public boolean matches( WorldGenContext context ) {
+        final float actual = getActual( context );
+        return !Float.isNaN( actual ) && COMPARATOR.apply( actual, VALUE );
+    }
+    
     /** @return Returns the actual value to compare, or Float.NaN if there isn't enough information. */
     public abstract float getActual( World world, @Nullable BlockPos pos );
     
+    /**
+     * @return Returns the actual value to compare, or Float.NaN if there isn't enough information.
+     * Override this to use the context's shared world data. By default, this simply calls {@link #getActual(World, BlockPos)}.
+     */
+    public float getActual( EnvironmentContext context ) { return getActual( context.getWorld(), context.getPos() ); }
+    
+    /**
+     * @return Returns the actual value to compare, found through a reused context. For environments that only really
+     * implement {@link #getActual(EnvironmentContext)}, to use in their {@link #getActual(World, BlockPos)} without
+     * creating a new context for each call.
+     */
+    protected final float getActualInContext( World world, @Nullable BlockPos pos ) {
+        final EnvironmentContext context = EnvironmentContext.acquire( world, pos );
+        try {
+            return getActual( context );
+        }
+        finally {
+            context.release();
+        }
+    }
+    
+    /**
+     * @return Returns the actual value to compare during world generation, or Float.NaN if there isn't enough information.
+     * Override this for environments that support world generation. By default, this always returns Float.NaN.
+     */
+    public float getActual( WorldGenContext context ) { return Float.NaN; }
+    
 }
\ No newline at end of file
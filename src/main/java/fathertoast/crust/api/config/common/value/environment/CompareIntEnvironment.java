@@ -10,6 +10,9 @@ import javax.annotation.Nullable;
 
 public abstract class CompareIntEnvironment extends AbstractEnvironment {
     
+    /** Returned by {@link #getActual(World, BlockPos)} when there isn't enough information. */
+    public static final int NO_VALUE = Integer.MIN_VALUE;
+    
     /** How the actual value is compared to this environment's value. */
     public final ComparisonOperator COMPARATOR;
     /** The value for this environment. */
@@ -78,11 +81,51 @@ public abstract class CompareIntEnvironment extends AbstractEnvironment {
     /** @return Returns true if this environment matches the provided environment. */
     @Override
     public boolean matches( World world, @Nullable BlockPos pos ) {
-        final Integer actual = getActual( world, pos );
-        return actual != null && COMPARATOR.apply( actual, VALUE );
+        final int actual = getActual( world, pos );
+        return actual != NO_VALUE && COMPARATOR.apply( actual, VALUE );
+    }
+    
+    /** @return Returns true if this environment matches the provided environment. */
+    @Override
+    public boolean matches( EnvironmentContext context ) {
+        final int actual = getActual( context );
+        return actual != NO_VALUE && COMPARATOR.apply( actual, VALUE );
+    }
+    
+    /** @return Returns true if this environment matches the provided world generation environment. */
+    @Override
+    public boolean matches( WorldGenContext context ) {
+        final int actual = getActual( context );
+        return actual != NO_VALUE && COMPARATOR.apply( actual, VALUE );
+    }
+    
+    /** @return Returns the actual value to compare, or {@link #NO_VALUE} if there isn't enough information. */
+    public abstract int getActual( World world, @Nullable BlockPos pos );
+    
+    /**
+     * @return Returns the actual value to compare, or {@link #NO_VALUE} if there isn't enough information.
+     * Override this to use the context's shared world data. By default, this simply calls {@link #getActual(World, BlockPos)}.
+     */
+    public int getActual( EnvironmentContext context ) { return getActual( context.getWorld(), context.getPos() ); }
+    
+    /**
+     * @return Returns the actual value to compare, found through a reused context. For environments that only really
+     * implement {@link #getActual(EnvironmentContext)}, to use in their {@link #getActual(World, BlockPos)} without
+     * creating a new context for each call.
+     */
+    protected final int getActualInContext( World world, @Nullable BlockPos pos ) {
+        final EnvironmentContext context = EnvironmentContext.acquire( world, pos );
+        try {
+            return getActual( context );
+        }
+        finally {
+            context.release();
+        }
     }
     
-    /** @return Returns the actual value to compare, or null if there isn't enough information. */
-    @Nullable
-    public abstract Integer getActual( World world, @Nullable BlockPos pos );
+    /**
+     * @return Returns the actual value to compare during world generation, or {@link #NO_VALUE} if there isn't enough
+     * information. Override this for environments that support world generation. By default, this always returns {@link #NO_VALUE}.
+     */
+    public int getActual( WorldGenContext context ) { return NO_VALUE; }
 }
\ No newline at end of file
@@ -10,6 +10,9 @@ import javax.annotation.Nullable;
 
 public abstract class CompareLongEnvironment extends AbstractEnvironment {
     
+    /** Returned by {@link #getActual(World, BlockPos)} when there isn't enough information. */
+    public static final long NO_VALUE = Long.MIN_VALUE;
+    
     /** How the actual value is compared to this environment's value. */
     public final ComparisonOperator COMPARATOR;
     /** The value for this environment. */
@@ -78,11 +81,38 @@ public abstract class CompareLongEnvironment extends AbstractEnvironment {
     /** @return Returns true if this environment matches the provided environment. */
     @Override
     public boolean matches( World world, @Nullable BlockPos pos ) {
-        final Long actual = getActual( world, pos );
-        return actual != null && COMPARATOR.apply( actual, VALUE );
+        final long actual = getActual( world, pos );
+        return actual != NO_VALUE && COMPARATOR.apply( actual, VALUE );
+    }
+    
+    /** @return Returns true if this environment matches the provided environment. */
+    @Override
+    public boolean matches( EnvironmentContext context ) {
+        final long actual = getActual( context );
+        return actual != NO_VALUE && COMPARATOR.apply( actual, VALUE );
     }
     
-    /** @return Returns the actual value to compare, or null if there isn't enough information. */
-    @Nullable
-    public abstract Long getActual( World world, @Nullable BlockPos pos );
+    /** @return Returns the actual value to compare, or {@link #NO_VALUE} if there isn't enough information. */
+    public abstract long getActual( World world, @Nullable BlockPos pos );
+    
+    /**
+     * @return Returns the actual value to compare, or {@link #NO_VALUE} if there isn't enough information.
+     * Override this to use the context's shared world data. By default, this simply calls {@link #getActual(World, BlockPos)}.
+     */
+    public long getActual( EnvironmentContext context ) { return getActual( context.getWorld(), context.getPos() ); }
+    
+    /**
+     * @return Returns the actual value to compare, found through a reused context. For environments that only really
+     * implement {@link #getActual(EnvironmentContext)}, to use in their {@link #getActual(World, BlockPos)} without
+     * creating a new context for each call.
+     */
+    protected final long getActualInContext( World world, @Nullable BlockPos pos ) {
+        final EnvironmentContext context = EnvironmentContext.acquire( world, pos );
+        try {
+            return getActual( context );
+        }
+        finally {
+            context.release();
+        }
+    }
 }
\ No newline at end of file
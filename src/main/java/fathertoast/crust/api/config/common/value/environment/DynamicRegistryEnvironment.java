@@ -6,6 +6,7 @@ import fathertoast.crust.api.config.common.field.AbstractConfigField;
 import net.minecraft.util.RegistryKey;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.registry.DynamicRegistries;
 import net.minecraft.util.registry.Registry;
 import net.minecraft.world.World;
 import net.minecraft.world.server.ServerWorld;
@@ -27,9 +28,9 @@ public abstract class DynamicRegistryEnvironment<T> extends AbstractEnvironment
     /** The registry key for this environment. */
     private final ResourceLocation REGISTRY_KEY;
     
-    private T registryEntry;
-    /** The value of {@link ConfigManager#getDynamicRegVersion()} at the time of last poll. */
-    private byte version = -1;
+    /** The result of the last registry lookup, or null if it has not been looked up yet. Only ever set to a complete result. */
+    @Nullable
+    private volatile Resolved<T> resolved;
     
     public DynamicRegistryEnvironment( ConfigManager cfgManager, ResourceLocation regKey, boolean invert ) {
         MANAGER = cfgManager;
@@ -60,22 +61,66 @@ public abstract class DynamicRegistryEnvironment<T> extends AbstractEnvironment
         return INVERT;
     }
     
+    /** @return Returns true if this environment matches the provided environment. */
+    @Override
+    public final boolean matches( EnvironmentContext context ) {
+        if( context.getWorld() instanceof ServerWorld )
+            return matches( (ServerWorld) context.getWorld(), context ); // These don't work on the client :(
+        return INVERT;
+    }
+    
     /** @return Returns true if this environment matches the provided environment. */
     public abstract boolean matches( ServerWorld world, @Nullable BlockPos pos );
     
-    /** @return The target registry object. */
+    /**
+     * @return Returns true if this environment matches the provided environment.
+     * Override this to use the context's shared world data. By default, this simply calls {@link #matches(ServerWorld, BlockPos)}.
+     */
+    public boolean matches( ServerWorld world, EnvironmentContext context ) { return matches( world, context.getPos() ); }
+    
+    /**
+     * @return The target registry object. Safe to call from any thread; if several threads make the first call after a
+     * reload at the same time, each may look up the entry, but they will all get the same result.
+     */
+    @Nullable
+    public final T getRegistryEntry( ServerWorld world ) { return getRegistryEntry( world.getServer().registryAccess() ); }
+    
+    /**
+     * @return The target registry object from the given registries. Safe to call from any thread; if several threads
+     * make the first call after a reload at the same time, each may look up the entry, but they will all get the same result.
+     */
     @Nullable
-    public final T getRegistryEntry( ServerWorld world ) {
-        if( version != MANAGER.getDynamicRegVersion() ) {
-            version = MANAGER.getDynamicRegVersion();
-            
-            final Registry<T> registry = world.getServer().registryAccess().registryOrThrow( getRegistry() );
-            registryEntry = registry.get( REGISTRY_KEY );
+    public final T getRegistryEntry( DynamicRegistries registries ) {
+        // Read the version first, so a reload during the lookup causes another lookup next time
+        final int version = MANAGER.getDynamicRegVersion();
+        Resolved<T> result = resolved;
+        if( result == null || result.VERSION != version || result.REGISTRIES != registries ) {
+            final Registry<T> registry = registries.registryOrThrow( getRegistry() );
+            final T registryEntry = registry.get( REGISTRY_KEY );
             if( registryEntry == null ) {
                 ConfigUtil.LOG.info( "Missing entry for {} \"{}\"! Not present in registry \"{}\". Missing entry: {}",
                         FIELD.getClass(), FIELD.getKey(), getRegistry().location(), REGISTRY_KEY );
             }
+            result = new Resolved<>( version, registries, registryEntry );
+            resolved = result;
+        }
+        return result.ENTRY;
+    }
+    
+    /** The immutable result of a registry lookup, along with the registry version it was looked up for. */
+    private static final class Resolved<T> {
+        /** The value of {@link ConfigManager#getDynamicRegVersion()} at the time of the lookup. */
+        final int VERSION;
+        /** The registries the lookup was done in. */
+        final DynamicRegistries REGISTRIES;
+        /** The registry entry, or null if it is not present in the registry. */
+        @Nullable
+        final T ENTRY;
+        
+        Resolved( int version, DynamicRegistries registries, @Nullable T entry ) {
+            VERSION = version;
+            REGISTRIES = registries;
+            ENTRY = entry;
         }
-        return registryEntry;
     }
 }
\ No newline at end of file
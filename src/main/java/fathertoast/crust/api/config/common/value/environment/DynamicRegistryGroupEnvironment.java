@@ -6,12 +6,14 @@ import fathertoast.crust.api.config.common.field.AbstractConfigField;
 import net.minecraft.util.RegistryKey;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.registry.DynamicRegistries;
 import net.minecraft.util.registry.Registry;
 import net.minecraft.world.World;
 import net.minecraft.world.server.ServerWorld;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 
@@ -30,9 +32,9 @@ public abstract class DynamicRegistryGroupEnvironment<T> extends AbstractEnviron
     /** The namespace for this environment. */
     private final String NAMESPACE;
     
-    private List<T> registryEntries;
-    /** The value of {@link ConfigManager#getDynamicRegVersion()} at the time of last poll. */
-    private byte version = -1;
+    /** The result of the last registry lookup, or null if it has not been looked up yet. Only ever set to a complete result. */
+    @Nullable
+    private volatile Resolved<T> resolved;
     
     public DynamicRegistryGroupEnvironment( ConfigManager cfgManager, ResourceLocation regKey, boolean invert ) {
         MANAGER = cfgManager;
@@ -63,16 +65,53 @@ public abstract class DynamicRegistryGroupEnvironment<T> extends AbstractEnviron
         return INVERT;
     }
     
+    /** @return Returns true if this environment matches the provided environment. */
+    @Override
+    public final boolean matches( EnvironmentContext context ) {
+        if( context.getWorld() instanceof ServerWorld )
+            return matches( (ServerWorld) context.getWorld(), context ); // These don't work on the client :(
+        return INVERT;
+    }
+    
     /** @return Returns true if this environment matches the provided environment. */
     public abstract boolean matches( ServerWorld world, @Nullable BlockPos pos );
     
-    /** @return The target registry object. */
-    protected final List<T> getRegistryEntries( ServerWorld world ) {
-        if( version != MANAGER.getDynamicRegVersion() ) {
-            version = MANAGER.getDynamicRegVersion();
-            
-            registryEntries = new ArrayList<>();
-            final Registry<T> registry = world.getServer().registryAccess().registryOrThrow( getRegistry() );
+    /**
+     * @return Returns true if this environment matches the provided environment.
+     * Override this to use the context's shared world data. By default, this simply calls {@link #matches(ServerWorld, BlockPos)}.
+     */
+    public boolean matches( ServerWorld world, EnvironmentContext context ) { return matches( world, context.getPos() ); }
+    
+    /**
+     * @return The target registry objects. Safe to call from any thread; if several threads make the first call after a
+     * reload at the same time, each may look up the entries, but they will all get the same result.
+     */
+    protected final List<T> getRegistryEntries( ServerWorld world ) { return resolve( world.getServer().registryAccess() ).ENTRIES; }
+    
+    /** @return True if the object is one of the registry entries. Uses the registry's integer ids instead of a list search. */
+    protected final boolean containsRegistryEntry( ServerWorld world, @Nullable T entry ) {
+        return containsRegistryEntry( world.getServer().registryAccess(), entry );
+    }
+    
+    /**
+     * @return True if the object is one of the registry entries in the given registries. Uses the registry's integer ids
+     * instead of a list search.
+     */
+    protected final boolean containsRegistryEntry( DynamicRegistries registries, @Nullable T entry ) {
+        final Resolved<T> result = resolve( registries ); // Make sure the ids are up to date
+        if( entry == null ) return false;
+        final int id = result.REGISTRY.getId( entry );
+        return id >= 0 && result.IDS.get( id );
+    }
+    
+    /** @return The result of the registry lookup, looking it up first if the registries have been reloaded since. */
+    private Resolved<T> resolve( DynamicRegistries registries ) {
+        // Read the version first, so a reload during the lookup causes another lookup next time
+        final int version = MANAGER.getDynamicRegVersion();
+        Resolved<T> result = resolved;
+        if( result == null || result.VERSION != version || result.REGISTRIES != registries ) {
+            final List<T> registryEntries = new ArrayList<>();
+            final Registry<T> registry = registries.registryOrThrow( getRegistry() );
             for( ResourceLocation regKey : registry.keySet() ) {
                 if( regKey.toString().startsWith( NAMESPACE ) ) {
                     final T entry = registry.get( regKey );
@@ -83,8 +122,37 @@ public abstract class DynamicRegistryGroupEnvironment<T> extends AbstractEnviron
                 ConfigUtil.LOG.info( "Namespace entry for {} \"{}\" did not match anything in registry \"{}\"! Questionable entry: {}",
                         FIELD == null ? "DEFAULT" : FIELD.getClass(), FIELD == null ? "DEFAULT" : FIELD.getKey(), getRegistry().location(), NAMESPACE );
             }
-            registryEntries = Collections.unmodifiableList( registryEntries );
+            
+            final BitSet ids = new BitSet();
+            for( T entry : registryEntries ) {
+                final int id = registry.getId( entry );
+                if( id >= 0 ) ids.set( id );
+            }
+            result = new Resolved<>( version, registries, Collections.unmodifiableList( registryEntries ), registry, ids );
+            resolved = result;
+        }
+        return result;
+    }
+    
+    /** The immutable result of a registry lookup, along with the registry version it was looked up for. */
+    private static final class Resolved<T> {
+        /** The value of {@link ConfigManager#getDynamicRegVersion()} at the time of the lookup. */
+        final int VERSION;
+        /** The registries the lookup was done in. */
+        final DynamicRegistries REGISTRIES;
+        /** The registry entries in the namespace. */
+        final List<T> ENTRIES;
+        /** The registry the registry entries were pulled from. */
+        final Registry<T> REGISTRY;
+        /** The registry ids of the registry entries, for fast lookup. Not modified once created. */
+        final BitSet IDS;
+        
+        Resolved( int version, DynamicRegistries registries, List<T> entries, Registry<T> registry, BitSet ids ) {
+            VERSION = version;
+            REGISTRIES = registries;
+            ENTRIES = entries;
+            REGISTRY = registry;
+            IDS = ids;
         }
-        return registryEntries;
     }
 }
\ No newline at end of file
@@ -0,0 +1,232 @@
+package fathertoast.crust.api.config.common.value.environment;
+
+import fathertoast.crust.api.lib.PlayerIndex;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.DifficultyInstance;
+import net.minecraft.world.DimensionType;
+import net.minecraft.world.World;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.chunk.Chunk;
+
+import javax.annotation.Nullable;
+
+/**
+ * The world and position an environment query is made for, along with any world data that environments have needed
+ * so far for the query. Each piece of world data is only looked up the first time it is needed, then reused by every
+ * other condition tested in the same query.
+ * <p>
+ * A context is only valid for the tick it was created in. Do not hold on to it.
+ */
+@SuppressWarnings( "unused" )
+public final class EnvironmentContext {
+    
+    /** A context reused for queries made on the server thread, so they do not need to create a new one each time. */
+    private static final EnvironmentContext SHARED = new EnvironmentContext();
+    /** A context reused for queries made on each other thread. */
+    private static final ThreadLocal<EnvironmentContext> LOCAL = ThreadLocal.withInitial( EnvironmentContext::new );
+    
+    /** True while a reused context is being used, so nested queries get their own context. */
+    private boolean inUse;
+    
+    private World world;
+    @Nullable
+    private BlockPos pos;
+    /** The chunk coordinates of the position, used to tell whether chunk-level data is still valid after a move. */
+    private int chunkX, chunkZ;
+    
+    // Memoized world data; each is only valid when its flag is set
+    private boolean hasBiome;
+    private Biome biome;
+    private boolean hasChunk;
+    private Chunk chunk;
+    private boolean hasChunkFacts;
+    private ChunkFacts chunkFacts;
+    private boolean hasDifficulty;
+    private DifficultyInstance difficulty;
+    @Nullable
+    private WorldStateSnapshot worldState;
+    /** The last snapshot made for this context off the server thread, updated in place instead of making a new one. */
+    @Nullable
+    private WorldStateSnapshot spareWorldState;
+    private boolean hasNearestPlayer;
+    private PlayerEntity nearestPlayer;
+    
+    /** Creates a new context for a single query. */
+    public EnvironmentContext( World world, @Nullable BlockPos pos ) { set( world, pos ); }
+    
+    private EnvironmentContext() { }
+    
+    /**
+     * @return A context for the given query. This reuses a context kept for the current thread when possible, so it
+     * must be given back with {@link #release()} when the query is done.
+     */
+    public static EnvironmentContext acquire( World world, @Nullable BlockPos pos ) {
+        final EnvironmentContext context = EnvironmentQueryCache.isAvailable( world ) ? SHARED : LOCAL.get();
+        if( context.inUse ) return new EnvironmentContext( world, pos );
+        context.inUse = true;
+        return context.set( world, pos );
+    }
+    
+    /** Gives back a context from {@link #acquire(World, BlockPos)} once it is no longer needed. */
+    public void release() {
+        if( inUse ) {
+            // Drop everything tied to the world, so a kept context does not hold on to it
+            set( null, null );
+            inUse = false;
+        }
+    }
+    
+    /** Points this context at a new query, forgetting all memoized world data. */
+    private EnvironmentContext set( @Nullable World newWorld, @Nullable BlockPos newPos ) {
+        world = newWorld;
+        setPos( newPos );
+        worldState = null;
+        clearLocal();
+        return this;
+    }
+    
+    /**
+     * Points this context at a new position in the same world during the same tick. World-level data is kept, and so is
+     * chunk-level data if the new position is in the same chunk as the old one.
+     */
+    public void move( @Nullable BlockPos newPos ) {
+        final boolean sameChunk = pos != null && newPos != null &&
+                chunkX == newPos.getX() >> 4 && chunkZ == newPos.getZ() >> 4;
+        final boolean keepChunk = sameChunk && hasChunk;
+        final boolean keepDifficulty = sameChunk && hasDifficulty;
+        final boolean keepChunkFacts = sameChunk && hasChunkFacts;
+        final Chunk oldChunk = chunk;
+        final DifficultyInstance oldDifficulty = difficulty;
+        final ChunkFacts oldChunkFacts = chunkFacts;
+        setPos( newPos );
+        clearLocal();
+        if( keepChunk ) {
+            hasChunk = true;
+            chunk = oldChunk;
+        }
+        if( keepChunkFacts ) {
+            hasChunkFacts = true;
+            chunkFacts = oldChunkFacts;
+        }
+        if( keepDifficulty ) {
+            hasDifficulty = true;
+            difficulty = oldDifficulty;
+        }
+    }
+    
+    /** Sets the position and updates its chunk coordinates. */
+    private void setPos( @Nullable BlockPos newPos ) {
+        pos = newPos;
+        if( newPos != null ) {
+            chunkX = newPos.getX() >> 4;
+            chunkZ = newPos.getZ() >> 4;
+        }
+    }
+    
+    /** Forgets all memoized data that depends on the position. */
+    private void clearLocal() {
+        hasBiome = hasChunk = hasChunkFacts = hasDifficulty = hasNearestPlayer = false;
+        biome = null;
+        chunk = null;
+        chunkFacts = null;
+        difficulty = null;
+        nearestPlayer = null;
+    }
+    
+    /** @return The world being queried. */
+    public World getWorld() { return world; }
+    
+    /** @return The position being queried, or null if the query is not for any particular position. */
+    @Nullable
+    public BlockPos getPos() { return pos; }
+    
+    /** @return The biome at the position, or null if there is no position. */
+    @Nullable
+    public Biome getBiome() {
+        if( !hasBiome ) {
+            if( pos == null ) biome = null;
+            else {
+                // Chunks with only one biome don't need the biome zoom calculation
+                final ChunkFacts facts = getChunkFacts();
+                final Biome onlyBiome = facts == null ? null : facts.getOnlyBiome();
+                biome = onlyBiome != null ? onlyBiome : world.getBiome( pos );
+            }
+            hasBiome = true;
+        }
+        return biome;
+    }
+    
+    /** @return The fixed facts about the chunk containing the position, or null if there is no position or they are not available. */
+    @Nullable
+    public ChunkFacts getChunkFacts() {
+        if( !hasChunkFacts ) {
+            chunkFacts = pos == null ? null : ChunkFacts.get( world, chunkX, chunkZ );
+            hasChunkFacts = true;
+        }
+        return chunkFacts;
+    }
+    
+    /** @return The chunk containing the position, or null if there is no position or the chunk is not loaded. */
+    @Nullable
+    public Chunk getChunk() {
+        if( !hasChunk ) {
+            // Ignore deprecation; this is intentionally the same method used by World#getCurrentDifficultyAt
+            //noinspection deprecation
+            chunk = pos == null || !world.hasChunkAt( pos ) ? null : world.getChunkAt( pos );
+            hasChunk = true;
+        }
+        return chunk;
+    }
+    
+    /** @return The regional difficulty at the position, or null if there is no position. */
+    @Nullable
+    public DifficultyInstance getDifficulty() {
+        if( !hasDifficulty ) {
+            difficulty = pos == null ? null : getWorldState().getDifficultyIn( getChunk() );
+            hasDifficulty = true;
+        }
+        return difficulty;
+    }
+    
+    /** @return The world's time, weather, and other global state for the current tick. */
+    public WorldStateSnapshot getWorldState() {
+        if( worldState == null ) {
+            if( EnvironmentQueryCache.isAvailable( world ) ) {
+                worldState = WorldStateSnapshot.of( world );
+            }
+            else {
+                worldState = spareWorldState = WorldStateSnapshot.reuse( spareWorldState, world );
+            }
+        }
+        return worldState;
+    }
+    
+    /** @return The world's dimension type. */
+    public DimensionType getDimensionType() { return getWorldState().getDimensionType(); }
+    
+    /** @return The world's day time. */
+    public long getDayTime() { return getWorldState().getDayTime(); }
+    
+    /** @return The world's moon phase, from 0 (full moon) to 7. */
+    public int getMoonPhase() { return getWorldState().getMoonPhase(); }
+    
+    /** @return The world's moon brightness, from 0 (new moon) to 1 (full moon). */
+    public float getMoonBrightness() { return getWorldState().getMoonBrightness(); }
+    
+    /** @return True if it is raining in the world. */
+    public boolean isRaining() { return getWorldState().isRaining(); }
+    
+    /** @return True if it is thundering in the world. */
+    public boolean isThundering() { return getWorldState().isThundering(); }
+    
+    /** @return The player nearest to the position, or null if there is no position or no players. */
+    @Nullable
+    public PlayerEntity getNearestPlayer() {
+        if( !hasNearestPlayer ) {
+            nearestPlayer = pos == null ? null : PlayerIndex.of( world ).getNearestPlayer( pos.getX(), pos.getY(), pos.getZ(), -1.0 );
+            hasNearestPlayer = true;
+        }
+        return nearestPlayer;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package fathertoast.crust.api.config.common.value.environment;
+
+/**
+ * A rough estimate of how expensive an environment is to test, from cheapest to most expensive.
+ * Conditions within an entry are tested cheapest-first, so an entry that fails a cheap check never runs the expensive ones.
+ */
+public enum EnvironmentCost {
+    
+    /** Needs no world access beyond the position itself, such as a y-level check. */
+    CONSTANT,
+    /** Reads global world state, such as the dimension type, time, or weather. */
+    PER_WORLD,
+    /** Reads chunk data, such as chunk inhabited time or regional difficulty. */
+    PER_COLUMN,
+    /** Reads block-level data, such as the biome, light, or fluid at the position. */
+    PER_BLOCK,
+    /** Searches the area around the position, such as structure bounds or village points of interest. */
+    STRUCTURE_SEARCH
+}
\ No newline at end of file
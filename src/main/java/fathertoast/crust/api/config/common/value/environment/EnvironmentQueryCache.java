@@ -0,0 +1,154 @@
+package fathertoast.crust.api.config.common.value.environment;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+import net.minecraft.world.server.ServerWorld;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.world.WorldEvent;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * A small, fixed-size cache of environment condition results, shared by all environment lists.
+ * <p>
+ * Results are keyed by world, position (reduced to the condition's {@link EnvironmentScope}), condition instance, and
+ * game tick; so every entry is automatically invalidated when the world ticks. Each key maps to exactly one slot, and
+ * a new result simply replaces whatever was in its slot, so the cache never grows or needs to be cleaned up.
+ * <p>
+ * The cache is only used for server worlds queried from the server thread. Any other query is evaluated directly.
+ * Benchmarks can also enable it for one non-server world with {@link #simulateServerThread(World)}.
+ */
+@SuppressWarnings( "unused" )
+public final class EnvironmentQueryCache {
+    
+    /** The default number of slots in the cache. */
+    public static final int DEFAULT_CAPACITY = 4096;
+    
+    /** The world each slot's result was calculated in. Null for empty slots. */
+    private static World[] worlds;
+    /** The condition each slot's result was calculated for. */
+    private static AbstractEnvironment[] conditions;
+    /** The position key each slot's result was calculated for. */
+    private static long[] positions;
+    /** The game time each slot's result was calculated on. */
+    private static long[] ticks;
+    /** The cached results. */
+    private static boolean[] results;
+    /** Used to convert a hash into a slot index. Always one less than the capacity. */
+    private static int mask;
+    
+    /** A world treated as a server world when queried from the simulated thread. Only ever set by benchmarks. */
+    @Nullable
+    private static World simulatedWorld;
+    /** The thread that the simulated world is treated as being queried from the server thread on. */
+    @Nullable
+    private static Thread simulatedThread;
+    
+    /** The number of results served from the cache. */
+    private static long hits;
+    /** The number of results that had to be calculated. */
+    private static long misses;
+    
+    static {
+        setCapacity( DEFAULT_CAPACITY );
+        MinecraftForge.EVENT_BUS.addListener( EnvironmentQueryCache::onWorldUnload );
+    }
+    
+    /** @return The number of slots in the cache. */
+    public static int getCapacity() { return mask + 1; }
+    
+    /**
+     * Resizes the cache, discarding all currently cached results. The capacity is rounded up to a power of two.
+     * Must be called from the server thread (or while no world is loaded).
+     */
+    public static void setCapacity( int capacity ) {
+        final int size = HashCommon.nextPowerOfTwo( Math.max( capacity, 16 ) );
+        worlds = new World[size];
+        conditions = new AbstractEnvironment[size];
+        positions = new long[size];
+        ticks = new long[size];
+        results = new boolean[size];
+        mask = size - 1;
+    }
+    
+    /** @return The number of condition results served from the cache since the last reset. */
+    public static long getHits() { return hits; }
+    
+    /** @return The number of condition results that were not in the cache since the last reset. */
+    public static long getMisses() { return misses; }
+    
+    /** Resets the hit and miss counters. */
+    public static void resetStats() { hits = misses = 0L; }
+    
+    /**
+     * @return True if the cache can be used for queries in the given world from the current thread. This also decides
+     * whether the other server-thread optimizations (shared contexts, world snapshots, player indices, and so on) apply.
+     */
+    public static boolean isAvailable( World world ) {
+        if( world instanceof ServerWorld ) return ((ServerWorld) world).getServer().isSameThread();
+        return world == simulatedWorld && world != null && Thread.currentThread() == simulatedThread;
+    }
+    
+    /**
+     * Makes {@link #isAvailable(World)} true for the given world when queried from the calling thread, as if it were a
+     * server world queried from the server thread, so benchmarks can measure the server-thread paths without running a
+     * server. Pass null to stop. This is only meant for benchmarks; never call it in game.
+     */
+    public static void simulateServerThread( @Nullable World world ) {
+        simulatedWorld = world;
+        simulatedThread = world == null ? null : Thread.currentThread();
+    }
+    
+    /**
+     * @return Returns true if the condition matches the provided environment, using a previously calculated result
+     * from this tick if one is available. Only call this after checking {@link #isAvailable(World)}, and only for
+     * contexts that have a position.
+     */
+    public static boolean matches( AbstractEnvironment condition, EnvironmentContext context ) {
+        final World world = context.getWorld();
+        final BlockPos pos = context.getPos();
+        //noinspection ConstantConditions - documented requirement
+        final long posKey = condition.getScope() == EnvironmentScope.CHUNK ?
+                ChunkPos.asLong( pos.getX() >> 4, pos.getZ() >> 4 ) : pos.asLong();
+        final long tick = world.getGameTime();
+        final int slot = (int) HashCommon.mix( posKey * 31L + System.identityHashCode( condition ) * 17L +
+                System.identityHashCode( world ) ) & mask;
+        
+        if( worlds[slot] == world && conditions[slot] == condition && positions[slot] == posKey && ticks[slot] == tick ) {
+            hits++;
+            return results[slot];
+        }
+        misses++;
+        final boolean result = condition.matches( context );
+        worlds[slot] = world;
+        conditions[slot] = condition;
+        positions[slot] = posKey;
+        ticks[slot] = tick;
+        results[slot] = result;
+        return result;
+    }
+    
+    /** Called when any world is unloaded. Drops all references to the world. */
+    private static void onWorldUnload( WorldEvent.Unload event ) {
+        final IWorld world = event.getWorld();
+        if( !(world instanceof ServerWorld) || !((ServerWorld) world).getServer().isSameThread() ) return;
+        for( int slot = 0; slot < worlds.length; slot++ ) {
+            if( worlds[slot] == world ) {
+                worlds[slot] = null;
+                conditions[slot] = null;
+            }
+        }
+    }
+    
+    /** Discards all cached results. Must be called from the server thread (or while no world is loaded). */
+    public static void clear() {
+        Arrays.fill( worlds, null );
+        Arrays.fill( conditions, null );
+    }
+    
+    private EnvironmentQueryCache() { }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package fathertoast.crust.api.config.common.value.environment;
+
+/**
+ * Describes the area of the world over which an environment's result is the same during any single tick.
+ * This is used to decide how results can be cached and reused.
+ * <p>
+ * When in doubt, use {@link #BLOCK}; a scope that is too large will cause incorrect results to be reused.
+ */
+public enum EnvironmentScope {
+    
+    /** The result depends only on the world (dimension) and its global state, such as time and weather. */
+    WORLD,
+    /** The result depends only on the chunk containing the position, such as chunk inhabited time. */
+    CHUNK,
+    /** The result may be different for every block position. */
+    BLOCK
+}
\ No newline at end of file
@@ -21,13 +21,15 @@ public abstract class RegistryEnvironment<T extends IForgeRegistryEntry<T>> exte
     /** The registry key for this environment. */
     private final ResourceLocation REGISTRY_KEY;
     
-    private T registryEntry;
+    /** The result of the registry lookup, or null if it has not been looked up yet. Only ever set to a complete result. */
+    @Nullable
+    private volatile Resolved<T> resolved;
     
     public RegistryEnvironment( T regEntry, boolean invert ) {
         FIELD = null;
         INVERT = invert;
         REGISTRY_KEY = regEntry.getRegistryName();
-        registryEntry = regEntry;
+        resolved = new Resolved<>( regEntry );
     }
     
     public RegistryEnvironment( AbstractConfigField field, String line ) {
@@ -43,16 +45,30 @@ public abstract class RegistryEnvironment<T extends IForgeRegistryEntry<T>> exte
     /** @return The registry used. */
     public abstract IForgeRegistry<T> getRegistry();
     
-    /** @return The registry entry. */
+    /**
+     * @return The registry entry. Safe to call from any thread; if several threads make the first call at the same time,
+     * each may look up the entry, but they will all get the same result.
+     */
     @Nullable
     protected final T getRegistryEntry() {
-        if( registryEntry == null ) {
+        Resolved<T> result = resolved;
+        if( result == null ) {
             if( !getRegistry().containsKey( REGISTRY_KEY ) ) {
                 ConfigUtil.LOG.warn( "Invalid entry for {} \"{}\"! Not present in registry \"{}\". Invalid entry: {}",
                         FIELD.getClass(), FIELD.getKey(), getRegistry().getRegistryName(), REGISTRY_KEY );
             }
-            registryEntry = getRegistry().getValue( REGISTRY_KEY );
+            result = new Resolved<>( getRegistry().getValue( REGISTRY_KEY ) );
+            resolved = result;
         }
-        return registryEntry;
+        return result.ENTRY;
+    }
+    
+    /** The immutable result of a registry lookup. Holding it in one object lets a missing entry be remembered, too. */
+    private static final class Resolved<T> {
+        /** The registry entry, or null if it is not present in the registry. */
+        @Nullable
+        final T ENTRY;
+        
+        Resolved( @Nullable T entry ) { ENTRY = entry; }
     }
 }
\ No newline at end of file
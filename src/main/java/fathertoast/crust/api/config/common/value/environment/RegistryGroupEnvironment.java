@@ -3,10 +3,13 @@ package fathertoast.crust.api.config.common.value.environment;
 import fathertoast.crust.api.config.common.ConfigUtil;
 import fathertoast.crust.api.config.common.field.AbstractConfigField;
 import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.registries.ForgeRegistry;
 import net.minecraftforge.registries.IForgeRegistry;
 import net.minecraftforge.registries.IForgeRegistryEntry;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 
@@ -23,7 +26,9 @@ public abstract class RegistryGroupEnvironment<T extends IForgeRegistryEntry<T>>
     /** The namespace for this environment. */
     private final String NAMESPACE;
     
-    private List<T> registryEntries;
+    /** The result of the registry lookup, or null if it has not been looked up yet. Only ever set to a complete result. */
+    @Nullable
+    private volatile Resolved<T> resolved;
     
     public RegistryGroupEnvironment( T regEntry, boolean invert ) {
         //noinspection ConstantConditions
@@ -49,22 +54,68 @@ public abstract class RegistryGroupEnvironment<T extends IForgeRegistryEntry<T>>
     /** @return The registry used. */
     public abstract IForgeRegistry<T> getRegistry();
     
-    /** @return The registry entries. */
-    protected final List<T> getRegistryEntries() {
-        if( registryEntries == null ) {
-            registryEntries = new ArrayList<>();
-            for( ResourceLocation regKey : getRegistry().getKeys() ) {
+    /**
+     * @return The registry entries. Safe to call from any thread; if several threads make the first call at the same time,
+     * each may look up the entries, but they will all get the same result.
+     */
+    protected final List<T> getRegistryEntries() { return resolve().ENTRIES; }
+    
+    /** @return True if the object is one of the registry entries. Uses the registry's integer ids instead of a list search. */
+    protected final boolean containsRegistryEntry( @Nullable T entry ) {
+        if( entry == null ) return false;
+        final Resolved<T> result = resolve();
+        if( result.IDS == null ) return result.ENTRIES.contains( entry ); // Should never happen
+        
+        @SuppressWarnings( "unchecked" )
+        final ForgeRegistry<T> forgeRegistry = (ForgeRegistry<T>) getRegistry();
+        final int id = forgeRegistry.getID( entry );
+        return id >= 0 && result.IDS.get( id );
+    }
+    
+    /** @return The result of the registry lookup, looking it up first if needed. */
+    private Resolved<T> resolve() {
+        Resolved<T> result = resolved;
+        if( result == null ) {
+            final IForgeRegistry<T> registry = getRegistry();
+            final List<T> registryEntries = new ArrayList<>();
+            for( ResourceLocation regKey : registry.getKeys() ) {
                 if( regKey.toString().startsWith( NAMESPACE ) ) {
-                    final T entry = getRegistry().getValue( regKey );
+                    final T entry = registry.getValue( regKey );
                     if( entry != null ) registryEntries.add( entry );
                 }
             }
             if( registryEntries.isEmpty() ) {
                 ConfigUtil.LOG.warn( "Namespace entry for {} \"{}\" did not match anything in registry \"{}\"! Questionable entry: {}",
-                        FIELD == null ? "DEFAULT" : FIELD.getClass(), FIELD == null ? "DEFAULT" : FIELD.getKey(), getRegistry().getRegistryName(), NAMESPACE );
+                        FIELD == null ? "DEFAULT" : FIELD.getClass(), FIELD == null ? "DEFAULT" : FIELD.getKey(), registry.getRegistryName(), NAMESPACE );
+            }
+            
+            BitSet ids = null;
+            if( registry instanceof ForgeRegistry ) {
+                @SuppressWarnings( "unchecked" )
+                final ForgeRegistry<T> forgeRegistry = (ForgeRegistry<T>) registry;
+                ids = new BitSet();
+                for( T regEntry : registryEntries ) {
+                    final int id = forgeRegistry.getID( regEntry );
+                    if( id >= 0 ) ids.set( id );
+                }
             }
-            registryEntries = Collections.unmodifiableList( registryEntries );
+            result = new Resolved<>( Collections.unmodifiableList( registryEntries ), ids );
+            resolved = result;
+        }
+        return result;
+    }
+    
+    /** The immutable result of a registry lookup. Neither the list nor the bit set are modified once created. */
+    private static final class Resolved<T> {
+        /** The registry entries in the namespace. */
+        final List<T> ENTRIES;
+        /** The registry ids of the registry entries, for fast lookup. Null if the registry does not use integer ids. */
+        @Nullable
+        final BitSet IDS;
+        
+        Resolved( List<T> entries, @Nullable BitSet ids ) {
+            ENTRIES = entries;
+            IDS = ids;
         }
-        return registryEntries;
     }
 }
\ No newline at end of file
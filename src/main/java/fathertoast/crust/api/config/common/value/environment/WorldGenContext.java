@@ -0,0 +1,72 @@
+package fathertoast.crust.api.config.common.value.environment;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.registry.DynamicRegistries;
+import net.minecraft.world.DimensionType;
+import net.minecraft.world.ISeedReader;
+import net.minecraft.world.IWorldReader;
+import net.minecraft.world.biome.Biome;
+
+/**
+ * The world and position a world generation environment query is made for, along with any world data that environments
+ * have needed so far for the query.
+ * <p>
+ * Unlike {@link EnvironmentContext}, this only needs a world reader (such as the region given to features during chunk
+ * generation) and a registry access handle, so queries can be made from the chunk generation worker threads. Only
+ * environments that support world generation can be tested with this; see {@link AbstractEnvironment#supportsWorldGen()}.
+ * <p>
+ * A context must only be used by one thread at a time, but it can be moved to many positions to avoid creating a new one.
+ */
+@SuppressWarnings( "unused" )
+public final class WorldGenContext {
+    
+    private final IWorldReader WORLD;
+    private final DynamicRegistries REGISTRIES;
+    private BlockPos pos;
+    
+    // Memoized world data; each is only valid when its flag is set
+    private boolean hasBiome;
+    private Biome biome;
+    
+    /** Creates a new context for a query made while generating features, using the server's registries. */
+    public WorldGenContext( ISeedReader world, BlockPos pos ) { this( world, world.getLevel().getServer().registryAccess(), pos ); }
+    
+    /** Creates a new context for a query. The registries are used to look up dynamic registry entries, such as biomes. */
+    public WorldGenContext( IWorldReader world, DynamicRegistries registries, BlockPos pos ) {
+        WORLD = world;
+        REGISTRIES = registries;
+        this.pos = pos;
+    }
+    
+    /** Points this context at a new position in the same world, forgetting all memoized world data. */
+    public WorldGenContext move( BlockPos newPos ) {
+        pos = newPos;
+        hasBiome = false;
+        biome = null;
+        return this;
+    }
+    
+    /** @return The world being queried. */
+    public IWorldReader getWorld() { return WORLD; }
+    
+    /** @return The registries used to look up dynamic registry entries. */
+    public DynamicRegistries getRegistries() { return REGISTRIES; }
+    
+    /** @return The position being queried. */
+    public BlockPos getPos() { return pos; }
+    
+    /** @return The biome at the position. */
+    public Biome getBiome() {
+        if( !hasBiome ) {
+            biome = WORLD.getBiome( pos );
+            hasBiome = true;
+        }
+        return biome;
+    }
+    
+    /** @return The world's dimension type. */
+    public DimensionType getDimensionType() { return WORLD.dimensionType(); }
+    
+    /** @return The world's sea level. */
+    public int getSeaLevel() { return WORLD.getSeaLevel(); }
+}
\ No newline at end of file
@@ -0,0 +1,205 @@
+package fathertoast.crust.api.config.common.value.environment;
+
+import net.minecraft.world.Difficulty;
+import net.minecraft.world.DifficultyInstance;
+import net.minecraft.world.DimensionType;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.server.ServerWorld;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.CommandEvent;
+import net.minecraftforge.event.DifficultyChangeEvent;
+import net.minecraftforge.event.world.SleepFinishedTimeEvent;
+import net.minecraftforge.event.world.WorldEvent;
+
+import javax.annotation.Nullable;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The global state of a world that the time and weather environments are based on, calculated once per tick.
+ * <p>
+ * Snapshots of server worlds queried from the server thread are kept and updated in place the first time they are
+ * used in each tick (that is, whenever the world's game time has changed). Other queries use a snapshot owned by
+ * their context, which is updated in place each time the context is reused.
+ * <p>
+ * Kept snapshots are also updated before their next use after any command is run, the difficulty is changed, or
+ * players finish sleeping, so those changes are seen within the same tick. Changes made directly by other mods'
+ * code partway through a tick are not seen until the next tick, unless the mod calls {@link #invalidate(World)}.
+ * <p>
+ * Each snapshot also tracks an 'epoch' that changes whenever something happens that world-level environments depend
+ * on, other than time simply passing. This lets world-level results be kept across ticks until an event changes them.
+ */
+@SuppressWarnings( "unused" )
+public final class WorldStateSnapshot {
+    
+    /** The kept snapshot for each server world. */
+    private static final Map<World, WorldStateSnapshot> SNAPSHOTS = new IdentityHashMap<>();
+    /** Changed whenever all worlds' remembered world-level results must be recalculated. */
+    private static final AtomicInteger GLOBAL_EPOCH = new AtomicInteger();
+    
+    static {
+        MinecraftForge.EVENT_BUS.addListener( WorldStateSnapshot::onWorldUnload );
+        MinecraftForge.EVENT_BUS.addListener( WorldStateSnapshot::onCommand );
+        MinecraftForge.EVENT_BUS.addListener( WorldStateSnapshot::onDifficultyChange );
+        MinecraftForge.EVENT_BUS.addListener( WorldStateSnapshot::onSleepFinished );
+    }
+    
+    /** @return The current state of the world. Do not hold on to this past the current tick. */
+    public static WorldStateSnapshot of( World world ) {
+        if( !EnvironmentQueryCache.isAvailable( world ) ) return new WorldStateSnapshot( world );
+        
+        WorldStateSnapshot snapshot = SNAPSHOTS.get( world );
+        if( snapshot == null ) {
+            snapshot = new WorldStateSnapshot( world );
+            SNAPSHOTS.put( world, snapshot );
+        }
+        else if( snapshot.stale || snapshot.gameTime != world.getGameTime() ) {
+            snapshot.update( world );
+        }
+        return snapshot;
+    }
+    
+    /**
+     * @return The given snapshot, updated in place to the world's current state, or a new snapshot if it is null.
+     * Only for snapshots owned by a single context, never for the snapshots kept for server worlds.
+     */
+    static WorldStateSnapshot reuse( @Nullable WorldStateSnapshot snapshot, World world ) {
+        if( snapshot == null ) return new WorldStateSnapshot( world );
+        snapshot.update( world );
+        return snapshot;
+    }
+    
+    /**
+     * Marks the world's state as changed, so any remembered world-level environment results are recalculated.
+     * Call this from the server thread when something a world-level environment depends on changes outside the
+     * world's own time and weather, such as a mod's difficulty system.
+     */
+    public static void invalidate( World world ) {
+        if( !EnvironmentQueryCache.isAvailable( world ) ) return;
+        final WorldStateSnapshot snapshot = SNAPSHOTS.get( world );
+        if( snapshot != null ) {
+            snapshot.epoch++;
+            snapshot.stale = true;
+        }
+    }
+    
+    /** Makes every kept snapshot update before its next use, in case the world's state has changed since. */
+    private static void markAllStale() {
+        for( WorldStateSnapshot snapshot : SNAPSHOTS.values() ) snapshot.stale = true;
+    }
+    
+    /** Called before any command is run. Commands may change the time, weather, or difficulty. */
+    private static void onCommand( CommandEvent event ) { markAllStale(); }
+    
+    /** Called when the difficulty is changed. */
+    private static void onDifficultyChange( DifficultyChangeEvent event ) { markAllStale(); }
+    
+    /** Called before the day time is skipped ahead because all players slept. */
+    private static void onSleepFinished( SleepFinishedTimeEvent event ) { markAllStale(); }
+    
+    /**
+     * Marks every world's state as changed, so all remembered world-level environment results are recalculated.
+     * Called automatically when registries are reloaded. Safe to call from any thread.
+     */
+    public static void invalidateAll() { GLOBAL_EPOCH.incrementAndGet(); }
+    
+    /** Called when any world is unloaded. Drops the world's snapshot. */
+    private static void onWorldUnload( WorldEvent.Unload event ) {
+        final IWorld world = event.getWorld();
+        if( world instanceof ServerWorld ) SNAPSHOTS.remove( world );
+    }
+    
+    /** Changed each time an event is seen in this world. */
+    private int epoch;
+    /** True if the world's state may have changed since this snapshot was updated, even within the same tick. */
+    private boolean stale;
+    /** The game time this snapshot was taken on. */
+    private long gameTime;
+    private DimensionType dimensionType;
+    private long dayTime;
+    private int moonPhase;
+    private float moonBrightness;
+    private boolean raining;
+    private boolean thundering;
+    private Difficulty difficulty;
+    
+    private WorldStateSnapshot( World world ) { update( world ); }
+    
+    /** Recalculates this snapshot from the world's current state, changing the epoch if any event happened since. */
+    private void update( World world ) {
+        stale = false;
+        final long lastGameTime = gameTime;
+        final long lastDayTime = dayTime;
+        final DimensionType lastDimensionType = dimensionType;
+        final boolean lastRaining = raining;
+        final boolean lastThundering = thundering;
+        final Difficulty lastDifficulty = difficulty;
+        
+        gameTime = world.getGameTime();
+        dimensionType = world.dimensionType();
+        dayTime = world.dayTime();
+        moonPhase = dimensionType.moonPhase( dayTime );
+        moonBrightness = DimensionType.MOON_BRIGHTNESS_PER_PHASE[moonPhase];
+        raining = world.getLevelData().isRaining();
+        thundering = world.getLevelData().isThundering();
+        difficulty = world.getDifficulty();
+        
+        // Day time normally either stands still or runs with the game time; anything else is a jump (sleeping, commands)
+        final boolean timeJumped = dayTime != lastDayTime && dayTime - lastDayTime != gameTime - lastGameTime;
+        if( timeJumped || dimensionType != lastDimensionType || raining != lastRaining || thundering != lastThundering ||
+                difficulty != lastDifficulty ) {
+            epoch++;
+        }
+    }
+    
+    /**
+     * @return A number that is the same for two snapshots of the same world only if no event has happened between them.
+     * Events are weather and difficulty changes, day time jumps, registry reloads, and calls to {@link #invalidate(World)}.
+     */
+    public long getEpoch() { return (long) GLOBAL_EPOCH.get() << 32 | epoch & 0xFFFF_FFFFL; }
+    
+    /**
+     * @return The last game time before the world's time of day next reaches the given time of day (0 to 23999),
+     * assuming time runs normally from now on.
+     */
+    public long getLastTickBefore( int timeOfDay ) {
+        final long ticks = Math.floorMod( timeOfDay - dayTime, 24_000L );
+        return gameTime + (ticks == 0L ? 24_000L : ticks) - 1L;
+    }
+    
+    /** @return The game time this snapshot was taken on. */
+    public long getGameTime() { return gameTime; }
+    
+    /** @return The world's dimension type. */
+    public DimensionType getDimensionType() { return dimensionType; }
+    
+    /** @return The world's day time. */
+    public long getDayTime() { return dayTime; }
+    
+    /** @return The world's moon phase, from 0 (full moon) to 7. */
+    public int getMoonPhase() { return moonPhase; }
+    
+    /** @return The world's moon brightness, from 0 (new moon) to 1 (full moon). */
+    public float getMoonBrightness() { return moonBrightness; }
+    
+    /** @return True if it is raining in the world. */
+    public boolean isRaining() { return raining; }
+    
+    /** @return True if it is thundering in the world. */
+    public boolean isThundering() { return thundering; }
+    
+    /** @return The world's difficulty setting. */
+    public Difficulty getDifficulty() { return difficulty; }
+    
+    /**
+     * @return The regional difficulty in the given chunk. Pass null if the chunk is not loaded.
+     * Equivalent to {@link World#getCurrentDifficultyAt(net.minecraft.util.math.BlockPos)}.
+     */
+    public DifficultyInstance getDifficultyIn( @Nullable Chunk chunk ) {
+        return chunk == null ? new DifficultyInstance( difficulty, dayTime, 0L, 0.0F ) :
+                new DifficultyInstance( difficulty, dayTime, chunk.getInhabitedTime(), moonBrightness );
+    }
+}
\ No newline at end of file
@@ -2,8 +2,11 @@ package fathertoast.crust.api.config.common.value.environment.biome;
 
 import fathertoast.crust.api.config.common.field.AbstractConfigField;
 import fathertoast.crust.api.config.common.value.environment.EnumEnvironment;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentContext;
+import fathertoast.crust.api.config.common.value.environment.WorldGenContext;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
+import net.minecraft.world.biome.Biome;
 
 import javax.annotation.Nullable;
 
@@ -15,7 +18,20 @@ public class BiomeCategoryEnvironment extends EnumEnvironment<BiomeCategory> {
     
     /** @return Returns true if this environment matches the provided environment. */
     @Override
-    public boolean matches( World world, @Nullable BlockPos pos ) {
-        return (pos != null && VALUE.BASE.equals( world.getBiome( pos ).getBiomeCategory() )) != INVERT;
+    public boolean matches( World world, @Nullable BlockPos pos ) { return matchesInContext( world, pos ); }
+    
+    /** @return Returns true if this environment matches the provided environment. */
+    @Override
+    public boolean matches( EnvironmentContext context ) {
+        final Biome biome = context.getBiome();
+        return (biome != null && VALUE.BASE.equals( biome.getBiomeCategory() )) != INVERT;
     }
+    
+    /** @return True if this environment can be tested during world generation. */
+    @Override
+    public boolean supportsWorldGen() { return true; }
+    
+    /** @return Returns true if this environment matches the provided world generation environment. */
+    @Override
+    public boolean matches( WorldGenContext context ) { return VALUE.BASE.equals( context.getBiome().getBiomeCategory() ) != INVERT; }
 }
\ No newline at end of file
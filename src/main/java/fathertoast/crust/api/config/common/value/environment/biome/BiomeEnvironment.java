@@ -2,7 +2,10 @@ package fathertoast.crust.api.config.common.value.environment.biome;
 
 import fathertoast.crust.api.config.common.ConfigManager;
 import fathertoast.crust.api.config.common.field.AbstractConfigField;
+import fathertoast.crust.api.config.common.value.environment.ChunkFacts;
 import fathertoast.crust.api.config.common.value.environment.DynamicRegistryEnvironment;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentContext;
+import fathertoast.crust.api.config.common.value.environment.WorldGenContext;
 import net.minecraft.util.RegistryKey;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.registry.Registry;
@@ -25,8 +28,25 @@ public class BiomeEnvironment extends DynamicRegistryEnvironment<Biome> {
     
     /** @return Returns true if this environment matches the provided environment. */
     @Override
-    public boolean matches( ServerWorld world, @Nullable BlockPos pos ) {
+    public boolean matches( ServerWorld world, @Nullable BlockPos pos ) { return matchesInContext( world, pos ); }
+    
+    /** @return Returns true if this environment matches the provided environment. */
+    @Override
+    public boolean matches( ServerWorld world, EnvironmentContext context ) {
         final Biome entry = getRegistryEntry( world );
-        return (entry != null && pos != null && entry.equals( world.getBiome( pos ) )) != INVERT;
+        final ChunkFacts facts = context.getChunkFacts();
+        if( facts != null && !facts.mayContain( entry ) ) return INVERT; // Biome is nowhere in the chunk
+        return (entry != null && entry.equals( context.getBiome() )) != INVERT;
+    }
+    
+    /** @return True if this environment can be tested during world generation. */
+    @Override
+    public boolean supportsWorldGen() { return true; }
+    
+    /** @return Returns true if this environment matches the provided world generation environment. */
+    @Override
+    public boolean matches( WorldGenContext context ) {
+        final Biome entry = getRegistryEntry( context.getRegistries() );
+        return (entry != null && entry.equals( context.getBiome() )) != INVERT;
     }
 }
\ No newline at end of file
@@ -2,7 +2,10 @@ package fathertoast.crust.api.config.common.value.environment.biome;
 
 import fathertoast.crust.api.config.common.ConfigManager;
 import fathertoast.crust.api.config.common.field.AbstractConfigField;
+import fathertoast.crust.api.config.common.value.environment.ChunkFacts;
 import fathertoast.crust.api.config.common.value.environment.DynamicRegistryGroupEnvironment;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentContext;
+import fathertoast.crust.api.config.common.value.environment.WorldGenContext;
 import net.minecraft.util.RegistryKey;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
@@ -11,7 +14,6 @@ import net.minecraft.world.biome.Biome;
 import net.minecraft.world.server.ServerWorld;
 
 import javax.annotation.Nullable;
-import java.util.List;
 
 public class BiomeGroupEnvironment extends DynamicRegistryGroupEnvironment<Biome> {
     
@@ -32,14 +34,32 @@ public class BiomeGroupEnvironment extends DynamicRegistryGroupEnvironment<Biome
     
     /** @return Returns true if this environment matches the provided environment. */
     @Override
-    public final boolean matches( ServerWorld world, @Nullable BlockPos pos ) {
-        final Biome target = pos == null ? null : world.getBiome( pos );
-        if( target != null ) {
-            final List<Biome> entries = getRegistryEntries( world );
-            for( Biome entry : entries ) {
-                if( entry.equals( target ) ) return !INVERT;
+    public final boolean matches( ServerWorld world, @Nullable BlockPos pos ) { return matchesInContext( world, pos ); }
+    
+    /** @return Returns true if this environment matches the provided environment. */
+    @Override
+    public final boolean matches( ServerWorld world, EnvironmentContext context ) {
+        final ChunkFacts facts = context.getChunkFacts();
+        if( facts != null && facts.getOnlyBiome() == null ) {
+            // If every biome in the chunk is in the group, or none are, the exact biome doesn't matter
+            boolean any = false;
+            boolean all = true;
+            for( Biome biome : facts.getBiomes() ) {
+                if( containsRegistryEntry( world, biome ) ) any = true;
+                else all = false;
             }
+            if( all || !any ) return all != INVERT;
         }
-        return INVERT;
+        return containsRegistryEntry( world, context.getBiome() ) != INVERT;
+    }
+    
+    /** @return True if this environment can be tested during world generation. */
+    @Override
+    public boolean supportsWorldGen() { return true; }
+    
+    /** @return Returns true if this environment matches the provided world generation environment. */
+    @Override
+    public final boolean matches( WorldGenContext context ) {
+        return containsRegistryEntry( context.getRegistries(), context.getBiome() ) != INVERT;
     }
 }
\ No newline at end of file
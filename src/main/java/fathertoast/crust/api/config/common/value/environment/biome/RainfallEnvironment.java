@@ -3,6 +3,8 @@ package fathertoast.crust.api.config.common.value.environment.biome;
 import fathertoast.crust.api.config.common.field.AbstractConfigField;
 import fathertoast.crust.api.config.common.value.environment.CompareFloatEnvironment;
 import fathertoast.crust.api.config.common.value.environment.ComparisonOperator;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentContext;
+import fathertoast.crust.api.config.common.value.environment.WorldGenContext;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraft.world.biome.Biome;
@@ -17,18 +19,52 @@ public class RainfallEnvironment extends CompareFloatEnvironment {
     
     /** @return Returns true if this environment matches the provided environment. */
     @Override
-    public boolean matches( World world, @Nullable BlockPos pos ) {
+    public boolean matches( World world, @Nullable BlockPos pos ) { return matchesInContext( world, pos ); }
+    
+    /** @return Returns true if this environment matches the provided environment. */
+    @Override
+    public boolean matches( EnvironmentContext context ) {
         // Handle the special case of no rainfall
-        if( COMPARATOR == ComparisonOperator.EQUAL_TO && VALUE == 0.0F )
-            return pos != null && world.getBiome( pos ).getPrecipitation() == Biome.RainType.NONE;
-        if( COMPARATOR == ComparisonOperator.NOT_EQUAL_TO && VALUE == 0.0F )
-            return pos != null && world.getBiome( pos ).getPrecipitation() != Biome.RainType.NONE;
-        return super.matches( world, pos );
+        if( COMPARATOR == ComparisonOperator.EQUAL_TO && VALUE == 0.0F ) {
+            final Biome biome = context.getBiome();
+            return biome != null && biome.getPrecipitation() == Biome.RainType.NONE;
+        }
+        if( COMPARATOR == ComparisonOperator.NOT_EQUAL_TO && VALUE == 0.0F ) {
+            final Biome biome = context.getBiome();
+            return biome != null && biome.getPrecipitation() != Biome.RainType.NONE;
+        }
+        return super.matches( context );
     }
     
     /** @return Returns the actual value to compare, or Float.NaN if there isn't enough information. */
     @Override
-    public float getActual( World world, @Nullable BlockPos pos ) {
-        return pos == null ? Float.NaN : world.getBiome( pos ).getDownfall();
+    public float getActual( World world, @Nullable BlockPos pos ) { return getActualInContext( world, pos ); }
+    
+    /** @return Returns the actual value to compare, or Float.NaN if there isn't enough information. */
+    @Override
+    public float getActual( EnvironmentContext context ) {
+        final Biome biome = context.getBiome();
+        return biome == null ? Float.NaN : biome.getDownfall();
+    }
+    
+    /** @return True if this environment can be tested during world generation. */
+    @Override
+    public boolean supportsWorldGen() { return true; }
+    
+    /** @return Returns true if this environment matches the provided world generation environment. */
+    @Override
+    public boolean matches( WorldGenContext context ) {
+        // Handle the special case of no rainfall
+        if( COMPARATOR == ComparisonOperator.EQUAL_TO && VALUE == 0.0F ) {
+            return context.getBiome().getPrecipitation() == Biome.RainType.NONE;
+        }
+        if( COMPARATOR == ComparisonOperator.NOT_EQUAL_TO && VALUE == 0.0F ) {
+            return context.getBiome().getPrecipitation() != Biome.RainType.NONE;
+        }
+        return super.matches( context );
     }
+    
+    /** @return Returns the actual value to compare during world generation, or Float.NaN if there isn't enough information. */
+    @Override
+    public float getActual( WorldGenContext context ) { return context.getBiome().getDownfall(); }
 }
\ No newline at end of file
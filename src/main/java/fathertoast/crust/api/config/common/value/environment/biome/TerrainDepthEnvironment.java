@@ -3,8 +3,11 @@ package fathertoast.crust.api.config.common.value.environment.biome;
 import fathertoast.crust.api.config.common.field.AbstractConfigField;
 import fathertoast.crust.api.config.common.value.environment.CompareFloatEnvironment;
 import fathertoast.crust.api.config.common.value.environment.ComparisonOperator;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentContext;
+import fathertoast.crust.api.config.common.value.environment.WorldGenContext;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
+import net.minecraft.world.biome.Biome;
 
 import javax.annotation.Nullable;
 
@@ -16,7 +19,20 @@ public class TerrainDepthEnvironment extends CompareFloatEnvironment {
     
     /** @return Returns the actual value to compare, or Float.NaN if there isn't enough information. */
     @Override
-    public float getActual( World world, @Nullable BlockPos pos ) {
-        return pos == null ? Float.NaN : world.getBiome( pos ).getDepth();
+    public float getActual( World world, @Nullable BlockPos pos ) { return getActualInContext( world, pos ); }
+    
+    /** @return Returns the actual value to compare, or Float.NaN if there isn't enough information. */
+    @Override
+    public float getActual( EnvironmentContext context ) {
+        final Biome biome = context.getBiome();
+        return biome == null ? Float.NaN : biome.getDepth();
     }
+    
+    /** @return True if this environment can be tested during world generation. */
+    @Override
+    public boolean supportsWorldGen() { return true; }
+    
+    /** @return Returns the actual value to compare during world generation, or Float.NaN if there isn't enough information. */
+    @Override
+    public float getActual( WorldGenContext context ) { return context.getBiome().getDepth(); }
 }
\ No newline at end of file
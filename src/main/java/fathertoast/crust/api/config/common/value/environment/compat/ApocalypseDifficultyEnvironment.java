@@ -1,10 +1,11 @@
 package fathertoast.crust.api.config.common.value.environment.compat;
 
 import fathertoast.crust.api.ICrustApi;
+import fathertoast.crust.api.IDifficultyAccessor;
 import fathertoast.crust.api.config.common.field.AbstractConfigField;
 import fathertoast.crust.api.config.common.value.environment.CompareLongEnvironment;
 import fathertoast.crust.api.config.common.value.environment.ComparisonOperator;
-import net.minecraft.entity.player.PlayerEntity;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentContext;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
@@ -32,23 +33,20 @@ public class ApocalypseDifficultyEnvironment extends CompareLongEnvironment {
     /** @return True if Apocalypse Rebooted is installed. */
     protected boolean isApocalypseInstalled() { return apiInstance.getDifficultyAccessor() != null; }
     
-    /** @return Returns the actual value to compare, or null if there isn't enough information. */
-    @Nullable
-    public Long getActual( World world, @Nullable BlockPos pos ) {
+    /** @return Returns the actual value to compare, or {@link #NO_VALUE} if there isn't enough information. */
+    @Override
+    public long getActual( World world, @Nullable BlockPos pos ) { return getActualInContext( world, pos ); }
+    
+    /** @return Returns the actual value to compare, or {@link #NO_VALUE} if there isn't enough information. */
+    @Override
+    public long getActual( EnvironmentContext context ) {
         // Check if Apocalypse Rebooted is installed and any players exist
-        if( apiInstance.getDifficultyAccessor() == null || world.players().size() == 0 ) return null;
-        
-        // Get nearest player, if a position is available
-        if( pos != null ) {
-            return apiInstance.getDifficultyAccessor().getNearestPlayerDifficulty( world, pos );
-        }
+        final IDifficultyAccessor accessor = apiInstance.getDifficultyAccessor();
+        final World world = context.getWorld();
+        if( accessor == null || world.players().isEmpty() ) return NO_VALUE;
         
-        // Find player with lowest difficulty, if we don't have a position
-        long minDiff = Long.MAX_VALUE;
-        for( PlayerEntity player : world.players() ) {
-            long diff = apiInstance.getDifficultyAccessor().getPlayerDifficulty( player );
-            if( diff < minDiff ) minDiff = diff;
-        }
-        return minDiff;
+        // Get nearest player, if a position is available; otherwise, use the player with lowest difficulty
+        final BlockPos pos = context.getPos();
+        return pos == null ? accessor.getLowestPlayerDifficulty( world ) : accessor.getNearestPlayerDifficulty( world, pos );
     }
 }
\ No newline at end of file
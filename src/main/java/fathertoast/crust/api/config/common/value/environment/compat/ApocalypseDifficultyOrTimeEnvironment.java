@@ -2,6 +2,7 @@ package fathertoast.crust.api.config.common.value.environment.compat;
 
 import fathertoast.crust.api.config.common.field.AbstractConfigField;
 import fathertoast.crust.api.config.common.value.environment.ComparisonOperator;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentContext;
 import fathertoast.crust.api.config.common.value.environment.time.WorldTimeEnvironment;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
@@ -19,9 +20,15 @@ public class ApocalypseDifficultyOrTimeEnvironment extends ApocalypseDifficultyE
     
     public ApocalypseDifficultyOrTimeEnvironment( AbstractConfigField field, String line ) { super( field, line ); }
     
-    /** @return Returns the actual value to compare, or null if there isn't enough information. */
+    /** @return Returns the actual value to compare, or {@link #NO_VALUE} if there isn't enough information. */
     @Override
-    public Long getActual( World world, @Nullable BlockPos pos ) {
-        return isApocalypseInstalled() ? super.getActual( world, pos ) : (Long) world.dayTime();
+    public long getActual( World world, @Nullable BlockPos pos ) {
+        return isApocalypseInstalled() ? super.getActual( world, pos ) : world.dayTime();
+    }
+    
+    /** @return Returns the actual value to compare, or {@link #NO_VALUE} if there isn't enough information. */
+    @Override
+    public long getActual( EnvironmentContext context ) {
+        return isApocalypseInstalled() ? super.getActual( context ) : context.getDayTime();
     }
 }
\ No newline at end of file
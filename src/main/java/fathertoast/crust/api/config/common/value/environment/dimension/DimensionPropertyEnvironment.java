@@ -2,6 +2,9 @@ package fathertoast.crust.api.config.common.value.environment.dimension;
 
 import fathertoast.crust.api.config.common.field.AbstractConfigField;
 import fathertoast.crust.api.config.common.value.environment.EnumEnvironment;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentContext;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentScope;
+import fathertoast.crust.api.config.common.value.environment.WorldGenContext;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.DimensionType;
 import net.minecraft.world.World;
@@ -41,5 +44,28 @@ public class DimensionPropertyEnvironment extends EnumEnvironment<DimensionPrope
     
     /** @return Returns true if this environment matches the provided environment. */
     @Override
-    public boolean matches( World world, @Nullable BlockPos pos ) { return VALUE.of( world.dimensionType() ) != INVERT; }
+    public boolean matches( World world, @Nullable BlockPos pos ) { return matchesInContext( world, pos ); }
+    
+    /** @return Returns true if this environment matches the provided environment. */
+    @Override
+    public boolean matches( EnvironmentContext context ) { return VALUE.of( context.getDimensionType() ) != INVERT; }
+    
+    /** @return The area over which this environment's result is the same during a single tick. */
+    @Override
+    public EnvironmentScope getScope() { return EnvironmentScope.WORLD; }
+    
+    /**
+     * @return Never expires; dimension properties come from the world's dimension type, which is fixed until the
+     * registries are reloaded.
+     */
+    @Override
+    public long getStableUntil( EnvironmentContext context ) { return Long.MAX_VALUE; }
+    
+    /** @return True if this environment can be tested during world generation. */
+    @Override
+    public boolean supportsWorldGen() { return true; }
+    
+    /** @return Returns true if this environment matches the provided world generation environment. */
+    @Override
+    public boolean matches( WorldGenContext context ) { return VALUE.of( context.getDimensionType() ) != INVERT; }
 }
\ No newline at end of file
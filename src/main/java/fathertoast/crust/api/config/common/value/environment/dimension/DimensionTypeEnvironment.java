@@ -3,6 +3,9 @@ package fathertoast.crust.api.config.common.value.environment.dimension;
 import fathertoast.crust.api.config.common.ConfigManager;
 import fathertoast.crust.api.config.common.field.AbstractConfigField;
 import fathertoast.crust.api.config.common.value.environment.DynamicRegistryEnvironment;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentContext;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentScope;
+import fathertoast.crust.api.config.common.value.environment.WorldGenContext;
 import net.minecraft.util.RegistryKey;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.registry.Registry;
@@ -25,8 +28,34 @@ public class DimensionTypeEnvironment extends DynamicRegistryEnvironment<Dimensi
     
     /** @return Returns true if this environment matches the provided environment. */
     @Override
-    public boolean matches( ServerWorld world, @Nullable BlockPos pos ) {
+    public boolean matches( ServerWorld world, @Nullable BlockPos pos ) { return matchesInContext( world, pos ); }
+    
+    /** @return Returns true if this environment matches the provided environment. */
+    @Override
+    public boolean matches( ServerWorld world, EnvironmentContext context ) {
         final DimensionType entry = getRegistryEntry( world );
-        return (entry != null && entry.equals( world.dimensionType() )) != INVERT;
+        return (entry != null && entry.equals( context.getDimensionType() )) != INVERT;
+    }
+    
+    /** @return The area over which this environment's result is the same during a single tick. */
+    @Override
+    public EnvironmentScope getScope() { return EnvironmentScope.WORLD; }
+    
+    /**
+     * @return Never expires; the world's dimension type is fixed until the registries are reloaded, which starts a
+     * new world epoch anyway.
+     */
+    @Override
+    public long getStableUntil( EnvironmentContext context ) { return Long.MAX_VALUE; }
+    
+    /** @return True if this environment can be tested during world generation. */
+    @Override
+    public boolean supportsWorldGen() { return true; }
+    
+    /** @return Returns true if this environment matches the provided world generation environment. */
+    @Override
+    public boolean matches( WorldGenContext context ) {
+        final DimensionType entry = getRegistryEntry( context.getRegistries() );
+        return (entry != null && entry.equals( context.getDimensionType() )) != INVERT;
     }
 }
\ No newline at end of file
@@ -3,6 +3,9 @@ package fathertoast.crust.api.config.common.value.environment.dimension;
 import fathertoast.crust.api.config.common.ConfigManager;
 import fathertoast.crust.api.config.common.field.AbstractConfigField;
 import fathertoast.crust.api.config.common.value.environment.DynamicRegistryGroupEnvironment;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentContext;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentScope;
+import fathertoast.crust.api.config.common.value.environment.WorldGenContext;
 import net.minecraft.util.RegistryKey;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
@@ -11,7 +14,6 @@ import net.minecraft.world.DimensionType;
 import net.minecraft.world.server.ServerWorld;
 
 import javax.annotation.Nullable;
-import java.util.List;
 
 public class DimensionTypeGroupEnvironment extends DynamicRegistryGroupEnvironment<DimensionType> {
     
@@ -32,12 +34,32 @@ public class DimensionTypeGroupEnvironment extends DynamicRegistryGroupEnvironme
     
     /** @return Returns true if this environment matches the provided environment. */
     @Override
-    public final boolean matches( ServerWorld world, @Nullable BlockPos pos ) {
-        final DimensionType target = world.dimensionType();
-        final List<DimensionType> entries = getRegistryEntries( world );
-        for( DimensionType entry : entries ) {
-            if( entry.equals( target ) ) return !INVERT;
-        }
-        return INVERT;
+    public final boolean matches( ServerWorld world, @Nullable BlockPos pos ) { return matchesInContext( world, pos ); }
+    
+    /** @return Returns true if this environment matches the provided environment. */
+    @Override
+    public final boolean matches( ServerWorld world, EnvironmentContext context ) {
+        return containsRegistryEntry( world, context.getDimensionType() ) != INVERT;
+    }
+    
+    /** @return The area over which this environment's result is the same during a single tick. */
+    @Override
+    public EnvironmentScope getScope() { return EnvironmentScope.WORLD; }
+    
+    /**
+     * @return Never expires; whether the world's dimension type is in the group can only change when the registries
+     * are reloaded, which starts a new world epoch anyway.
+     */
+    @Override
+    public long getStableUntil( EnvironmentContext context ) { return Long.MAX_VALUE; }
+    
+    /** @return True if this environment can be tested during world generation. */
+    @Override
+    public boolean supportsWorldGen() { return true; }
+    
+    /** @return Returns true if this environment matches the provided world generation environment. */
+    @Override
+    public final boolean matches( WorldGenContext context ) {
+        return containsRegistryEntry( context.getRegistries(), context.getDimensionType() ) != INVERT;
     }
 }
\ No newline at end of file
@@ -2,6 +2,9 @@ package fathertoast.crust.api.config.common.value.environment.position;
 
 import fathertoast.crust.api.config.common.field.AbstractConfigField;
 import fathertoast.crust.api.config.common.value.environment.EnumEnvironment;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentCost;
+import fathertoast.crust.api.config.common.value.environment.WorldGenContext;
+import net.minecraft.fluid.FluidState;
 import net.minecraft.tags.FluidTags;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
@@ -37,4 +40,26 @@ public class PositionEnvironment extends EnumEnvironment<PositionEnvironment.Val
     /** @return Returns true if this environment matches the provided environment. */
     @Override
     public boolean matches( World world, @Nullable BlockPos pos ) { return VALUE.of( world, pos ) != INVERT; }
+    
+    /** @return A rough estimate of how expensive this environment is to test. */
+    @Override
+    public EnvironmentCost getCost() {
+        return VALUE == Value.IS_IN_VILLAGE || VALUE == Value.IS_NEAR_VILLAGE ? EnvironmentCost.STRUCTURE_SEARCH : EnvironmentCost.PER_BLOCK;
+    }
+    
+    /** @return True if this environment can be tested during world generation. Only the fluid checks can be. */
+    @Override
+    public boolean supportsWorldGen() { return VALUE == Value.IS_IN_WATER || VALUE == Value.IS_IN_LAVA || VALUE == Value.IS_IN_FLUID; }
+    
+    /** @return Returns true if this environment matches the provided world generation environment. */
+    @Override
+    public boolean matches( WorldGenContext context ) {
+        final FluidState fluid = context.getWorld().getFluidState( context.getPos() );
+        switch( VALUE ) {
+            case IS_IN_WATER: return fluid.is( FluidTags.WATER ) != INVERT;
+            case IS_IN_LAVA: return fluid.is( FluidTags.LAVA ) != INVERT;
+            case IS_IN_FLUID: return (!fluid.isEmpty()) != INVERT;
+            default: return false;
+        }
+    }
 }
\ No newline at end of file
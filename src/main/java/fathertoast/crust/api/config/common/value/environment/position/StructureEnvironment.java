@@ -1,7 +1,10 @@
 package fathertoast.crust.api.config.common.value.environment.position;
 
 import fathertoast.crust.api.config.common.field.AbstractConfigField;
+import fathertoast.crust.api.config.common.value.environment.ChunkFacts;
 import fathertoast.crust.api.config.common.value.environment.RegistryEnvironment;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentContext;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentCost;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraft.world.gen.feature.structure.Structure;
@@ -26,6 +29,18 @@ public class StructureEnvironment extends RegistryEnvironment<Structure<?>> {
     public boolean matches( World world, @Nullable BlockPos pos ) {
         final Structure<?> entry = getRegistryEntry();
         return (entry != null && pos != null && world instanceof ServerWorld &&
-                ((ServerWorld) world).structureFeatureManager().getStructureAt( pos, false, entry ).isValid()) != INVERT;
+                StructureStartIndex.getStructureAt( (ServerWorld) world, pos, entry ).isValid()) != INVERT;
     }
+    
+    /** @return Returns true if this environment matches the provided environment. */
+    @Override
+    public boolean matches( EnvironmentContext context ) {
+        final ChunkFacts facts = context.getChunkFacts();
+        if( facts != null && !facts.mayContain( getRegistryEntry() ) ) return INVERT; // Structure is nowhere in the chunk
+        return matches( context.getWorld(), context.getPos() );
+    }
+    
+    /** @return A rough estimate of how expensive this environment is to test. */
+    @Override
+    public EnvironmentCost getCost() { return EnvironmentCost.STRUCTURE_SEARCH; }
 }
\ No newline at end of file
@@ -1,18 +1,20 @@
 package fathertoast.crust.api.config.common.value.environment.position;
 
 import fathertoast.crust.api.config.common.field.AbstractConfigField;
+import fathertoast.crust.api.config.common.value.environment.ChunkFacts;
 import fathertoast.crust.api.config.common.value.environment.RegistryGroupEnvironment;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentContext;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentCost;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraft.world.gen.feature.structure.Structure;
-import net.minecraft.world.gen.feature.structure.StructureManager;
+import net.minecraft.world.gen.feature.structure.StructureStart;
 import net.minecraft.world.server.ServerWorld;
 import net.minecraftforge.registries.ForgeRegistries;
 import net.minecraftforge.registries.IForgeRegistry;
 
 import javax.annotation.Nullable;
-import java.util.List;
 
 public class StructureGroupEnvironment extends RegistryGroupEnvironment<Structure<?>> {
     
@@ -31,14 +33,23 @@ public class StructureGroupEnvironment extends RegistryGroupEnvironment<Structur
     /** @return Returns true if this environment matches the provided environment. */
     @Override
     public final boolean matches( World world, @Nullable BlockPos pos ) {
-        final StructureManager structureManager = pos != null && world instanceof ServerWorld ?
-                ((ServerWorld) world).structureFeatureManager() : null;
-        if( structureManager != null ) {
-            final List<Structure<?>> entries = getRegistryEntries();
-            for( Structure<?> entry : entries ) {
-                if( structureManager.getStructureAt( pos, false, entry ).isValid() ) return !INVERT;
+        if( pos != null && world instanceof ServerWorld ) {
+            for( StructureStart<?> start : StructureStartIndex.getStarts( (ServerWorld) world, pos ) ) {
+                if( containsRegistryEntry( start.getFeature() ) && start.getBoundingBox().isInside( pos ) ) return !INVERT;
             }
         }
         return INVERT;
     }
+    
+    /** @return Returns true if this environment matches the provided environment. */
+    @Override
+    public final boolean matches( EnvironmentContext context ) {
+        final ChunkFacts facts = context.getChunkFacts();
+        if( facts != null && !facts.mayContainStructures() ) return INVERT; // No structures anywhere in the chunk
+        return matches( context.getWorld(), context.getPos() );
+    }
+    
+    /** @return A rough estimate of how expensive this environment is to test. */
+    @Override
+    public EnvironmentCost getCost() { return EnvironmentCost.STRUCTURE_SEARCH; }
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package fathertoast.crust.api.config.common.value.environment.position;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.chunk.ChunkStatus;
+import net.minecraft.world.chunk.IChunk;
+import net.minecraft.world.gen.feature.structure.Structure;
+import net.minecraft.world.gen.feature.structure.StructureStart;
+import net.minecraft.world.server.ServerWorld;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index of the structure starts that reach into each loaded chunk, for each server world.
+ * <p>
+ * Vanilla's structure lookup walks the chunk's structure references and loads each referenced start every time it
+ * is called. Since structure starts never change once generated, this instead does that walk once per loaded chunk
+ * (the first time the chunk is queried) and keeps the result until the chunk is unloaded.
+ * <p>
+ * The index is only used for fully loaded chunks queried from the server thread. Any other query is done directly.
+ */
+@SuppressWarnings( "unused" )
+public final class StructureStartIndex {
+    
+    /** Used for chunks that are not in range of any structure. */
+    private static final StructureStart<?>[] NO_STARTS = new StructureStart<?>[0];
+    
+    /** The structure starts referenced by each indexed chunk, by world. */
+    private static final Map<ServerWorld, Long2ObjectMap<StructureStart<?>[]>> INDICES = new IdentityHashMap<>();
+    
+    static {
+        MinecraftForge.EVENT_BUS.addListener( StructureStartIndex::onChunkUnload );
+        MinecraftForge.EVENT_BUS.addListener( StructureStartIndex::onWorldUnload );
+    }
+    
+    /**
+     * @return The structure start of the given type whose bounds contain the position, or {@link StructureStart#INVALID_START}
+     * if there is none. Equivalent to {@code world.structureFeatureManager().getStructureAt( pos, false, structure )}.
+     */
+    public static StructureStart<?> getStructureAt( ServerWorld world, BlockPos pos, Structure<?> structure ) {
+        for( StructureStart<?> start : getStarts( world, pos ) ) {
+            if( start.getFeature() == structure && start.getBoundingBox().isInside( pos ) ) return start;
+        }
+        return StructureStart.INVALID_START;
+    }
+    
+    /**
+     * @return All valid structure starts that are referenced by the chunk containing the position.
+     * Note that the position is not necessarily inside any of their bounds. Do not modify the returned array.
+     */
+    public static StructureStart<?>[] getStarts( ServerWorld world, BlockPos pos ) {
+        final int chunkX = pos.getX() >> 4;
+        final int chunkZ = pos.getZ() >> 4;
+        if( !world.getServer().isSameThread() || world.getChunkSource().getChunkNow( chunkX, chunkZ ) == null ) {
+            return findStarts( world, chunkX, chunkZ ); // Not safe to index, just look it up
+        }
+        
+        final Long2ObjectMap<StructureStart<?>[]> index = INDICES.computeIfAbsent( world, ( key ) -> new Long2ObjectOpenHashMap<>() );
+        final long chunkKey = ChunkPos.asLong( chunkX, chunkZ );
+        StructureStart<?>[] starts = index.get( chunkKey );
+        if( starts == null ) {
+            starts = findStarts( world, chunkX, chunkZ );
+            index.put( chunkKey, starts );
+        }
+        return starts;
+    }
+    
+    /** @return All valid structure starts referenced by the chunk. Mirrors the vanilla structure manager's lookup. */
+    private static StructureStart<?>[] findStarts( ServerWorld world, int chunkX, int chunkZ ) {
+        final IChunk chunk = world.getChunk( chunkX, chunkZ, ChunkStatus.STRUCTURE_REFERENCES );
+        final List<StructureStart<?>> starts = new ArrayList<>();
+        for( Map.Entry<Structure<?>, LongSet> references : chunk.getAllReferences().entrySet() ) {
+            final LongIterator iterator = references.getValue().iterator();
+            while( iterator.hasNext() ) {
+                final ChunkPos startPos = new ChunkPos( iterator.nextLong() );
+                final StructureStart<?> start = world.getChunk( startPos.x, startPos.z, ChunkStatus.STRUCTURE_STARTS )
+                        .getStartForFeature( references.getKey() );
+                if( start != null && start.isValid() ) starts.add( start );
+            }
+        }
+        return starts.isEmpty() ? NO_STARTS : starts.toArray( NO_STARTS );
+    }
+    
+    /** Called when any chunk is unloaded. Drops the chunk from its world's index. */
+    private static void onChunkUnload( ChunkEvent.Unload event ) {
+        final IWorld world = event.getWorld();
+        if( !(world instanceof ServerWorld) || !((ServerWorld) world).getServer().isSameThread() ) return;
+        final Long2ObjectMap<StructureStart<?>[]> index = INDICES.get( world );
+        if( index != null ) index.remove( event.getChunk().getPos().toLong() );
+    }
+    
+    /** Called when any world is unloaded. Drops the world's entire index. */
+    private static void onWorldUnload( WorldEvent.Unload event ) {
+        final IWorld world = event.getWorld();
+        if( world instanceof ServerWorld ) INDICES.remove( world );
+    }
+}
\ No newline at end of file
@@ -3,6 +3,8 @@ package fathertoast.crust.api.config.common.value.environment.position;
 import fathertoast.crust.api.config.common.field.AbstractConfigField;
 import fathertoast.crust.api.config.common.value.environment.CompareIntEnvironment;
 import fathertoast.crust.api.config.common.value.environment.ComparisonOperator;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentCost;
+import fathertoast.crust.api.config.common.value.environment.WorldGenContext;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
@@ -14,7 +16,19 @@ public class YEnvironment extends CompareIntEnvironment {
     
     public YEnvironment( AbstractConfigField field, String line ) { super( field, line ); }
     
-    /** @return Returns the actual value to compare, or null if there isn't enough information. */
+    /** @return Returns the actual value to compare, or {@link #NO_VALUE} if there isn't enough information. */
     @Override
-    public Integer getActual( World world, @Nullable BlockPos pos ) { return pos == null ? null : pos.getY(); }
+    public int getActual( World world, @Nullable BlockPos pos ) { return pos == null ? NO_VALUE : pos.getY(); }
+    
+    /** @return A rough estimate of how expensive this environment is to test. */
+    @Override
+    public EnvironmentCost getCost() { return EnvironmentCost.CONSTANT; }
+    
+    /** @return True if this environment can be tested during world generation. */
+    @Override
+    public boolean supportsWorldGen() { return true; }
+    
+    /** @return Returns the actual value to compare during world generation, or {@link #NO_VALUE} if there isn't enough information. */
+    @Override
+    public int getActual( WorldGenContext context ) { return context.getPos().getY(); }
 }
\ No newline at end of file
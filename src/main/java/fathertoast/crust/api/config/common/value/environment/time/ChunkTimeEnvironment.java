@@ -3,8 +3,11 @@ package fathertoast.crust.api.config.common.value.environment.time;
 import fathertoast.crust.api.config.common.field.AbstractConfigField;
 import fathertoast.crust.api.config.common.value.environment.CompareLongEnvironment;
 import fathertoast.crust.api.config.common.value.environment.ComparisonOperator;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentContext;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentScope;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
 
 import javax.annotation.Nullable;
 
@@ -18,11 +21,18 @@ public class ChunkTimeEnvironment extends CompareLongEnvironment {
     @Override
     protected long getMinValue() { return 0L; }
     
-    /** @return Returns the actual value to compare, or null if there isn't enough information. */
+    /** @return Returns the actual value to compare, or {@link #NO_VALUE} if there isn't enough information. */
     @Override
-    public Long getActual( World world, @Nullable BlockPos pos ) {
-        // Ignore deprecation; this is intentionally the same method used by World#getCurrentDifficultyAt
-        //noinspection deprecation
-        return pos == null || !world.hasChunkAt( pos ) ? null : world.getChunkAt( pos ).getInhabitedTime();
+    public long getActual( World world, @Nullable BlockPos pos ) { return getActualInContext( world, pos ); }
+    
+    /** @return Returns the actual value to compare, or {@link #NO_VALUE} if there isn't enough information. */
+    @Override
+    public long getActual( EnvironmentContext context ) {
+        final Chunk chunk = context.getChunk();
+        return chunk == null ? NO_VALUE : chunk.getInhabitedTime();
     }
+    
+    /** @return The area over which this environment's result is the same during a single tick. */
+    @Override
+    public EnvironmentScope getScope() { return EnvironmentScope.CHUNK; }
 }
\ No newline at end of file
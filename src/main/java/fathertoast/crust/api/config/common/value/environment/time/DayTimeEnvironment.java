@@ -2,6 +2,9 @@ package fathertoast.crust.api.config.common.value.environment.time;
 
 import fathertoast.crust.api.config.common.field.AbstractConfigField;
 import fathertoast.crust.api.config.common.value.environment.EnumEnvironment;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentContext;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentScope;
+import fathertoast.crust.api.config.common.value.environment.WorldStateSnapshot;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
@@ -33,7 +36,26 @@ public class DayTimeEnvironment extends EnumEnvironment<DayTimeEnvironment.Value
     
     /** @return Returns true if this environment matches the provided environment. */
     @Override
-    public boolean matches( World world, @Nullable BlockPos pos ) {
-        return (VALUE.matches( (int) (world.dayTime() / 24_000L) )) != INVERT;
+    public boolean matches( World world, @Nullable BlockPos pos ) { return matchesInContext( world, pos ); }
+    
+    /** @return Returns true if this environment matches the provided environment. */
+    @Override
+    public boolean matches( EnvironmentContext context ) {
+        return (VALUE.matches( (int) (context.getDayTime() / 24_000L) )) != INVERT;
+    }
+    
+    /** @return The area over which this environment's result is the same during a single tick. */
+    @Override
+    public EnvironmentScope getScope() { return EnvironmentScope.WORLD; }
+    
+    /**
+     * @return The tick before the day time next reaches either end of the value's range or a new day starts,
+     * whichever comes first.
+     */
+    @Override
+    public long getStableUntil( EnvironmentContext context ) {
+        final WorldStateSnapshot state = context.getWorldState();
+        return Math.min( state.getLastTickBefore( 0 ),
+                Math.min( state.getLastTickBefore( VALUE.START ), state.getLastTickBefore( VALUE.END ) ) );
     }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package fathertoast.crust.api.config.common.value.environment.time;
 
 import fathertoast.crust.api.config.common.field.AbstractConfigField;
 import fathertoast.crust.api.config.common.value.environment.EnumEnvironment;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentContext;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentScope;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
@@ -25,8 +27,22 @@ public class MoonPhaseEnvironment extends EnumEnvironment<MoonPhaseEnvironment.V
     
     /** @return Returns true if this environment matches the provided environment. */
     @Override
-    public boolean matches( World world, @Nullable BlockPos pos ) {
-        final int phase = world.dimensionType().moonPhase( world.dayTime() );
-        return (VALUE.INDEX == phase) != INVERT;
+    public boolean matches( World world, @Nullable BlockPos pos ) { return matchesInContext( world, pos ); }
+    
+    /** @return Returns true if this environment matches the provided environment. */
+    @Override
+    public boolean matches( EnvironmentContext context ) {
+        return (VALUE.INDEX == context.getMoonPhase()) != INVERT;
     }
+    
+    /** @return The area over which this environment's result is the same during a single tick. */
+    @Override
+    public EnvironmentScope getScope() { return EnvironmentScope.WORLD; }
+    
+    /**
+     * @return The last tick of the current day; the moon phase only advances when the day time crosses into a new
+     * day.
+     */
+    @Override
+    public long getStableUntil( EnvironmentContext context ) { return context.getWorldState().getLastTickBefore( 0 ); }
 }
\ No newline at end of file
@@ -3,6 +3,8 @@ package fathertoast.crust.api.config.common.value.environment.time;
 import fathertoast.crust.api.config.common.field.AbstractConfigField;
 import fathertoast.crust.api.config.common.value.environment.CompareIntEnvironment;
 import fathertoast.crust.api.config.common.value.environment.ComparisonOperator;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentContext;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentScope;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
@@ -22,11 +24,19 @@ public class TimeFromMidnightEnvironment extends CompareIntEnvironment {
     @Override
     protected int getMaxValue() { return 12_000; }
     
-    /** @return Returns the actual value to compare, or null if there isn't enough information. */
+    /** @return Returns the actual value to compare, or {@link #NO_VALUE} if there isn't enough information. */
     @Override
-    public Integer getActual( World world, @Nullable BlockPos pos ) {
-        int dayTime = (int) (world.dayTime() / 24_000L);
+    public int getActual( World world, @Nullable BlockPos pos ) { return getActualInContext( world, pos ); }
+    
+    /** @return Returns the actual value to compare, or {@link #NO_VALUE} if there isn't enough information. */
+    @Override
+    public int getActual( EnvironmentContext context ) {
+        int dayTime = (int) (context.getDayTime() / 24_000L);
         if( dayTime < 18_000 ) dayTime += 24_000;
         return dayTime - 18_000;
     }
+    
+    /** @return The area over which this environment's result is the same during a single tick. */
+    @Override
+    public EnvironmentScope getScope() { return EnvironmentScope.WORLD; }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package fathertoast.crust.api.config.common.value.environment.time;
 
 import fathertoast.crust.api.config.common.field.AbstractConfigField;
 import fathertoast.crust.api.config.common.value.environment.EnumEnvironment;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentContext;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentScope;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
@@ -18,9 +20,21 @@ public class WeatherEnvironment extends EnumEnvironment<WeatherEnvironment.Value
     
     /** @return Returns true if this environment matches the provided environment. */
     @Override
-    public boolean matches( World world, @Nullable BlockPos pos ) {
-        if( world.getLevelData().isThundering() ) return (VALUE == Value.CLEAR) == INVERT; // Thunder implies rain
-        if( world.getLevelData().isRaining() ) return (VALUE == Value.RAIN) != INVERT;
+    public boolean matches( World world, @Nullable BlockPos pos ) { return matchesInContext( world, pos ); }
+    
+    /** @return Returns true if this environment matches the provided environment. */
+    @Override
+    public boolean matches( EnvironmentContext context ) {
+        if( context.isThundering() ) return (VALUE == Value.CLEAR) == INVERT; // Thunder implies rain
+        if( context.isRaining() ) return (VALUE == Value.RAIN) != INVERT;
         return (VALUE == Value.CLEAR) != INVERT;
     }
+    
+    /** @return The area over which this environment's result is the same during a single tick. */
+    @Override
+    public EnvironmentScope getScope() { return EnvironmentScope.WORLD; }
+    
+    /** @return Never expires; the weather only changes through world events, which start a new world epoch. */
+    @Override
+    public long getStableUntil( EnvironmentContext context ) { return Long.MAX_VALUE; }
 }
\ No newline at end of file
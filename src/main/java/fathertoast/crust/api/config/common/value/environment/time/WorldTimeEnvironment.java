@@ -3,6 +3,8 @@ package fathertoast.crust.api.config.common.value.environment.time;
 import fathertoast.crust.api.config.common.field.AbstractConfigField;
 import fathertoast.crust.api.config.common.value.environment.CompareLongEnvironment;
 import fathertoast.crust.api.config.common.value.environment.ComparisonOperator;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentContext;
+import fathertoast.crust.api.config.common.value.environment.EnvironmentScope;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
@@ -18,7 +20,27 @@ public class WorldTimeEnvironment extends CompareLongEnvironment {
     @Override
     protected long getMinValue() { return 0L; }
     
-    /** @return Returns the actual value to compare, or null if there isn't enough information. */
+    /** @return Returns the actual value to compare, or {@link #NO_VALUE} if there isn't enough information. */
     @Override
-    public Long getActual( World world, @Nullable BlockPos pos ) { return world.dayTime(); }
+    public long getActual( World world, @Nullable BlockPos pos ) { return world.dayTime(); }
+    
+    /** @return Returns the actual value to compare, or {@link #NO_VALUE} if there isn't enough information. */
+    @Override
+    public long getActual( EnvironmentContext context ) { return context.getDayTime(); }
+    
+    /** @return The area over which this environment's result is the same during a single tick. */
+    @Override
+    public EnvironmentScope getScope() { return EnvironmentScope.WORLD; }
+    
+    /**
+     * @return The tick before the day time reaches the value, the current tick if it is at the value, or never once
+     * it has passed the value. Day time only moves forward on its own; setting it is a world event.
+     */
+    @Override
+    public long getStableUntil( EnvironmentContext context ) {
+        final long gameTime = context.getWorldState().getGameTime();
+        final long actual = context.getDayTime();
+        if( actual < VALUE ) return gameTime + (VALUE - actual) - 1L;
+        return actual == VALUE ? gameTime : Long.MAX_VALUE;
+    }
 }
\ No newline at end of file
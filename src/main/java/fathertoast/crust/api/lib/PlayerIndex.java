@@ -0,0 +1,335 @@
+package fathertoast.crust.api.lib;
+
+import fathertoast.crust.api.config.common.value.environment.EnvironmentQueryCache;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+import net.minecraft.world.server.ServerWorld;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.world.WorldEvent;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * A grid of the players in a world, used to find the player nearest to a position without checking every player.
+ * This also caches one value per player (such as a difficulty), so it is only calculated once per tick.
+ * <p>
+ * The index for each server world queried from the server thread is kept and rebuilt the first time it is used in
+ * each tick. Any other query gets a new index. Player positions are as they were when the index was built.
+ */
+@SuppressWarnings( "unused" )
+public final class PlayerIndex {
+    
+    /** Each grid cell is a column of 2^CELL_SHIFT blocks on each side. */
+    private static final int CELL_SHIFT = 5;
+    /** The width of each grid cell, in blocks. */
+    private static final int CELL_SIZE = 1 << CELL_SHIFT;
+    /** When there are this many players or fewer, checking each player is faster than searching the grid. */
+    private static final int LINEAR_SEARCH_MAX = 8;
+    /** Marks the end of a grid cell's player chain. */
+    private static final int NONE = -1;
+    
+    /** The kept index for each server world. */
+    private static final Map<World, PlayerIndex> INDICES = new IdentityHashMap<>();
+    /** Changed whenever a player joins, leaves, or moves between worlds, so kept indices are rebuilt. */
+    private static int playersVersion;
+    
+    static {
+        MinecraftForge.EVENT_BUS.addListener( PlayerIndex::onWorldUnload );
+        MinecraftForge.EVENT_BUS.addListener( PlayerIndex::onPlayerLoggedIn );
+        MinecraftForge.EVENT_BUS.addListener( PlayerIndex::onPlayerLoggedOut );
+        MinecraftForge.EVENT_BUS.addListener( PlayerIndex::onPlayerRespawn );
+        MinecraftForge.EVENT_BUS.addListener( PlayerIndex::onPlayerChangedDimension );
+    }
+    
+    /** @return The player index for the world. Do not hold on to this past the current tick. */
+    public static PlayerIndex of( World world ) {
+        if( !EnvironmentQueryCache.isAvailable( world ) ) return new PlayerIndex( world );
+        
+        PlayerIndex index = INDICES.get( world );
+        if( index == null ) {
+            index = new PlayerIndex( world );
+            INDICES.put( world, index );
+        }
+        else if( index.gameTime != world.getGameTime() || index.version != playersVersion || index.size != world.players().size() ) {
+            index.rebuild( world );
+        }
+        return index;
+    }
+    
+    // Each player event below marks all kept indices as out of date, since a player can be replaced in the same tick
+    // without changing the player count
+    
+    /** Called when a player joins the server. */
+    private static void onPlayerLoggedIn( PlayerEvent.PlayerLoggedInEvent event ) { playersVersion++; }
+    
+    /** Called when a player leaves the server. */
+    private static void onPlayerLoggedOut( PlayerEvent.PlayerLoggedOutEvent event ) { playersVersion++; }
+    
+    /** Called when a player respawns, which replaces the player entity. */
+    private static void onPlayerRespawn( PlayerEvent.PlayerRespawnEvent event ) { playersVersion++; }
+    
+    /** Called when a player moves to another dimension. */
+    private static void onPlayerChangedDimension( PlayerEvent.PlayerChangedDimensionEvent event ) { playersVersion++; }
+    
+    /** Called when any world is unloaded. Drops the world's index. */
+    private static void onWorldUnload( WorldEvent.Unload event ) {
+        final IWorld world = event.getWorld();
+        if( world instanceof ServerWorld ) INDICES.remove( world );
+    }
+    
+    /** The game time this index was built on. */
+    private long gameTime;
+    /** The value of {@link #playersVersion} when this index was built. */
+    private int version;
+    /** The number of players in the index. */
+    private int size;
+    /** The number of players in the index that are not spectators. */
+    private int searchableSize;
+    
+    /** The indexed players, in the same order as the world's player list. */
+    private PlayerEntity[] players = new PlayerEntity[0];
+    /** The position of each player. */
+    private double[] posX = new double[0], posY = new double[0], posZ = new double[0];
+    /** Whether each player can be found by nearest player searches (that is, is not a spectator). */
+    private boolean[] searchable = new boolean[0];
+    /** The next player in the same grid cell as each player, or {@link #NONE}. */
+    private int[] nextInCell = new int[0];
+    /** The first player in each grid cell, keyed by packed cell coordinates. Spectators are not included. */
+    private final Long2IntMap CELLS = new Long2IntOpenHashMap();
+    /** The bounds of all non-empty grid cells. */
+    private int minCellX, maxCellX, minCellZ, maxCellZ;
+    
+    /** The function used to calculate the cached values. The cache is cleared when a different function is used. */
+    @Nullable
+    private ToLongFunction<PlayerEntity> valueFunction;
+    /** The cached value for each player. */
+    private long[] values = new long[0];
+    /** Whether each player's value has been calculated. */
+    private boolean[] hasValue = new boolean[0];
+    /** Whether the lowest and highest values have been calculated. */
+    private boolean hasValueRange;
+    private long lowestValue, highestValue;
+    
+    /** The best match so far in the current grid search. */
+    private int bestIndex;
+    private double bestDistanceSqr;
+    
+    private PlayerIndex( World world ) {
+        CELLS.defaultReturnValue( NONE );
+        rebuild( world );
+    }
+    
+    /** Rebuilds this index from the world's current player list. */
+    private void rebuild( World world ) {
+        final List<? extends PlayerEntity> worldPlayers = world.players();
+        gameTime = world.getGameTime();
+        version = playersVersion;
+        size = worldPlayers.size();
+        if( players.length < size ) {
+            final int capacity = Math.max( size, players.length * 2 );
+            players = new PlayerEntity[capacity];
+            posX = new double[capacity];
+            posY = new double[capacity];
+            posZ = new double[capacity];
+            searchable = new boolean[capacity];
+            nextInCell = new int[capacity];
+            values = new long[capacity];
+            hasValue = new boolean[capacity];
+        }
+        else {
+            Arrays.fill( players, size, players.length, null );
+        }
+        Arrays.fill( hasValue, false );
+        hasValueRange = false;
+        
+        CELLS.clear();
+        searchableSize = 0;
+        minCellX = minCellZ = Integer.MAX_VALUE;
+        maxCellX = maxCellZ = Integer.MIN_VALUE;
+        for( int i = 0; i < size; i++ ) {
+            final PlayerEntity player = worldPlayers.get( i );
+            players[i] = player;
+            posX[i] = player.getX();
+            posY[i] = player.getY();
+            posZ[i] = player.getZ();
+            nextInCell[i] = NONE;
+            searchable[i] = !player.isSpectator();
+            if( !searchable[i] ) continue;
+            
+            final int cellX = MathHelper.floor( posX[i] ) >> CELL_SHIFT;
+            final int cellZ = MathHelper.floor( posZ[i] ) >> CELL_SHIFT;
+            final long cellKey = ChunkPos.asLong( cellX, cellZ );
+            nextInCell[i] = CELLS.get( cellKey );
+            CELLS.put( cellKey, i );
+            searchableSize++;
+            minCellX = Math.min( minCellX, cellX );
+            maxCellX = Math.max( maxCellX, cellX );
+            minCellZ = Math.min( minCellZ, cellZ );
+            maxCellZ = Math.max( maxCellZ, cellZ );
+        }
+    }
+    
+    /** @return The number of players in the world, including spectators. */
+    public int size() { return size; }
+    
+    /**
+     * @param maxDistance The max distance to search, or a negative value for no limit.
+     * @return The non-spectator player nearest to the position, or null if there is none within range.
+     * Equivalent to {@code world.getNearestPlayer( x, y, z, maxDistance, false )}.
+     */
+    @Nullable
+    public PlayerEntity getNearestPlayer( double x, double y, double z, double maxDistance ) {
+        final int i = nearestIndex( x, y, z, maxDistance );
+        return i == NONE ? null : players[i];
+    }
+    
+    /**
+     * @param maxDistance The max distance to search, or a negative value for no limit.
+     * @param function    The function that calculates the value. Should always be the same function instance, since
+     *                    using a different one clears all cached values.
+     * @param noPlayer    The value to return if there is no player within range.
+     * @return The value for the non-spectator player nearest to the position.
+     */
+    public long getNearestValue( double x, double y, double z, double maxDistance, ToLongFunction<PlayerEntity> function, long noPlayer ) {
+        final int i = nearestIndex( x, y, z, maxDistance );
+        return i == NONE ? noPlayer : getValue( i, function );
+    }
+    
+    /**
+     * @param function The function that calculates the value. See {@link #getNearestValue(double, double, double, double, ToLongFunction, long)}.
+     * @param noPlayer The value to return if there are no players.
+     * @return The lowest value of any player in the world, including spectators.
+     */
+    public long getLowestValue( ToLongFunction<PlayerEntity> function, long noPlayer ) {
+        if( size == 0 ) return noPlayer;
+        updateValueRange( function );
+        return lowestValue;
+    }
+    
+    /**
+     * @param function The function that calculates the value. See {@link #getNearestValue(double, double, double, double, ToLongFunction, long)}.
+     * @param noPlayer The value to return if there are no players.
+     * @return The highest value of any player in the world, including spectators.
+     */
+    public long getHighestValue( ToLongFunction<PlayerEntity> function, long noPlayer ) {
+        if( size == 0 ) return noPlayer;
+        updateValueRange( function );
+        return highestValue;
+    }
+    
+    /** @return The value for the player at the given index, calculating it if needed. */
+    private long getValue( int i, ToLongFunction<PlayerEntity> function ) {
+        if( valueFunction != function ) {
+            valueFunction = function;
+            Arrays.fill( hasValue, false );
+            hasValueRange = false;
+        }
+        if( !hasValue[i] ) {
+            values[i] = function.applyAsLong( players[i] );
+            hasValue[i] = true;
+        }
+        return values[i];
+    }
+    
+    /** Calculates the lowest and highest values, if not already done. */
+    private void updateValueRange( ToLongFunction<PlayerEntity> function ) {
+        if( hasValueRange && valueFunction == function ) return;
+        long lowest = Long.MAX_VALUE;
+        long highest = Long.MIN_VALUE;
+        for( int i = 0; i < size; i++ ) {
+            final long value = getValue( i, function );
+            if( value < lowest ) lowest = value;
+            if( value > highest ) highest = value;
+        }
+        lowestValue = lowest;
+        highestValue = highest;
+        hasValueRange = true;
+    }
+    
+    /**
+     * @return The index of the non-spectator player nearest to the position, or {@link #NONE}.
+     * Ties go to the player earliest in the world's player list, as in the vanilla search.
+     */
+    private int nearestIndex( double x, double y, double z, double maxDistance ) {
+        if( searchableSize <= LINEAR_SEARCH_MAX ) return nearestIndexLinear( x, y, z, maxDistance );
+        
+        final double maxDistanceSqr = maxDistance < 0.0 ? Double.POSITIVE_INFINITY : maxDistance * maxDistance;
+        final int cellX = MathHelper.floor( x ) >> CELL_SHIFT;
+        final int cellZ = MathHelper.floor( z ) >> CELL_SHIFT;
+        // Rings past the farthest non-empty cell cannot contain any players
+        final int maxRing = Math.max( Math.max( cellX - minCellX, maxCellX - cellX ), Math.max( cellZ - minCellZ, maxCellZ - cellZ ) );
+        
+        bestIndex = NONE;
+        bestDistanceSqr = maxDistanceSqr;
+        int cellsSearched = 0;
+        for( int ring = 0; ring <= maxRing; ring++ ) {
+            // Every position in this ring is at least (ring - 1) cells away horizontally
+            final double minDistance = (double) (ring - 1) * CELL_SIZE;
+            if( ring > 1 && minDistance * minDistance > bestDistanceSqr ) break;
+            // Give up on the grid if the players are too spread out for it to help
+            if( cellsSearched > searchableSize * 2 ) return nearestIndexLinear( x, y, z, maxDistance );
+            
+            if( ring == 0 ) {
+                searchCell( cellX, cellZ, x, y, z );
+                cellsSearched++;
+                continue;
+            }
+            for( int dX = -ring; dX <= ring; dX++ ) {
+                searchCell( cellX + dX, cellZ - ring, x, y, z );
+                searchCell( cellX + dX, cellZ + ring, x, y, z );
+            }
+            for( int dZ = 1 - ring; dZ < ring; dZ++ ) {
+                searchCell( cellX - ring, cellZ + dZ, x, y, z );
+                searchCell( cellX + ring, cellZ + dZ, x, y, z );
+            }
+            cellsSearched += ring * 8;
+        }
+        return bestIndex;
+    }
+    
+    /** Checks each player in a grid cell, updating the best match if a player is closer. */
+    private void searchCell( int cellX, int cellZ, double x, double y, double z ) {
+        for( int i = CELLS.get( ChunkPos.asLong( cellX, cellZ ) ); i != NONE; i = nextInCell[i] ) {
+            final double distanceSqr = distanceSqr( i, x, y, z );
+            if( distanceSqr < bestDistanceSqr || distanceSqr == bestDistanceSqr && bestIndex != NONE && i < bestIndex ) {
+                bestIndex = i;
+                bestDistanceSqr = distanceSqr;
+            }
+        }
+    }
+    
+    /** @return The index of the non-spectator player nearest to the position, or {@link #NONE}. Checks every player. */
+    private int nearestIndexLinear( double x, double y, double z, double maxDistance ) {
+        final double maxDistanceSqr = maxDistance < 0.0 ? Double.POSITIVE_INFINITY : maxDistance * maxDistance;
+        int closest = NONE;
+        double closestDistanceSqr = maxDistanceSqr;
+        for( int i = 0; i < size; i++ ) {
+            if( !searchable[i] ) continue;
+            final double distanceSqr = distanceSqr( i, x, y, z );
+            if( distanceSqr < closestDistanceSqr ) {
+                closest = i;
+                closestDistanceSqr = distanceSqr;
+            }
+        }
+        return closest;
+    }
+    
+    /** @return The squared distance from the player at the given index to the position. */
+    private double distanceSqr( int i, double x, double y, double z ) {
+        final double dX = posX[i] - x;
+        final double dY = posY[i] - y;
+        final double dZ = posZ[i] - z;
+        return dX * dX + dY * dY + dZ * dZ;
+    }
+}
\ No newline at end of file
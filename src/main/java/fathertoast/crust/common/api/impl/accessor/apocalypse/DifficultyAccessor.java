@@ -2,17 +2,23 @@ package fathertoast.crust.common.api.impl.accessor.apocalypse;
 
 import com.toast.apocalypse.common.util.CapabilityHelper;
 import fathertoast.crust.api.IDifficultyAccessor;
+import fathertoast.crust.api.lib.PlayerIndex;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.entity.player.ServerPlayerEntity;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
+import java.util.function.ToLongFunction;
+
 /**
  * Helper class for accessing Apocalypse difficulty data.
  * (Take care not to call any of this if Apocalypse is not installed, will result in runtime-anger :biglist:)
  */
 public final class DifficultyAccessor implements IDifficultyAccessor {
     
+    /** Calculates player difficulty for the player index. Always use this instance so the index's cached values are kept. */
+    private static final ToLongFunction<PlayerEntity> PLAYER_DIFFICULTY = CapabilityHelper::getPlayerDifficulty;
+    
     @Override
     public double getDifficultyRate( PlayerEntity player ) { return CapabilityHelper.getPlayerDifficultyMult( player ); }
     
@@ -26,11 +32,16 @@ public final class DifficultyAccessor implements IDifficultyAccessor {
     
     @Override
     public long getNearestPlayerDifficulty( World world, BlockPos origin, double searchRadius ) {
-        PlayerEntity player = world.getNearestPlayer( origin.getX(), origin.getY(), origin.getZ(),
-                searchRadius, false );
-        return player == null ? 0 : CapabilityHelper.getPlayerDifficulty( player );
+        return PlayerIndex.of( world ).getNearestValue( origin.getX(), origin.getY(), origin.getZ(),
+                searchRadius, PLAYER_DIFFICULTY, 0L );
     }
     
+    @Override
+    public long getLowestPlayerDifficulty( World world ) { return PlayerIndex.of( world ).getLowestValue( PLAYER_DIFFICULTY, 0L ); }
+    
+    @Override
+    public long getHighestPlayerDifficulty( World world ) { return PlayerIndex.of( world ).getHighestValue( PLAYER_DIFFICULTY, 0L ); }
+    
     @Override
     public long getMaxPlayerDifficulty( PlayerEntity player ) { return CapabilityHelper.getMaxPlayerDifficulty( player ); }
     
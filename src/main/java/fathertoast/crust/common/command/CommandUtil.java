@@ -9,9 +9,12 @@ import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import fathertoast.crust.api.ICrustApi;
 import fathertoast.crust.common.command.impl.CrustCleanCommand;
+import fathertoast.crust.common.command.impl.CrustHeatmapCommand;
 import fathertoast.crust.common.command.impl.CrustModeCommand;
 import fathertoast.crust.common.command.impl.CrustPortalCommand;
+import fathertoast.crust.common.command.impl.CrustProfileCommand;
 import fathertoast.crust.common.command.impl.CrustRecoverCommand;
+import fathertoast.crust.common.command.impl.CrustTraceCommand;
 import net.minecraft.command.CommandSource;
 import net.minecraft.command.Commands;
 import net.minecraft.command.arguments.EntityArgument;
@@ -34,9 +37,12 @@ public class CommandUtil {
     static void registerCommands( RegisterCommandsEvent event ) {
         CommandDispatcher<CommandSource> dispatcher = event.getDispatcher();
         CrustCleanCommand.register( dispatcher );
+        CrustHeatmapCommand.register( dispatcher );
         CrustModeCommand.register( dispatcher );
         CrustPortalCommand.register( dispatcher );
+        CrustProfileCommand.register( dispatcher );
         CrustRecoverCommand.register( dispatcher );
+        CrustTraceCommand.register( dispatcher );
     }
     
     
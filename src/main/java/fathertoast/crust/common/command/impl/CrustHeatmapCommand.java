@@ -0,0 +1,266 @@
+package fathertoast.crust.common.command.impl;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.builder.RequiredArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import fathertoast.crust.api.ICrustApi;
+import fathertoast.crust.api.config.common.AbstractConfigFile;
+import fathertoast.crust.api.config.common.ConfigManager;
+import fathertoast.crust.api.config.common.ConfigUtil;
+import fathertoast.crust.api.config.common.field.AbstractConfigField;
+import fathertoast.crust.api.config.common.field.EnvironmentListField;
+import fathertoast.crust.api.config.common.value.EnvironmentHeatmap;
+import fathertoast.crust.common.command.CommandUtil;
+import fathertoast.crust.common.core.Crust;
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.ISuggestionProvider;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraftforge.fml.loading.FMLPaths;
+
+import javax.annotation.Nullable;
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+public class CrustHeatmapCommand {
+    
+    public enum Format { CSV, IMAGE }
+    
+    /** The default and maximum distance around the source's chunk to export, in chunks. */
+    private static final int DEFAULT_RADIUS = 8, MAX_RADIUS = 32;
+    /** The default and maximum width of each heatmap cell, in blocks. */
+    private static final int DEFAULT_RESOLUTION = 4, MAX_RESOLUTION = 64;
+    /** Small heatmaps are scaled up so the image is at least this large. */
+    private static final int MIN_IMAGE_SIZE = 256;
+    
+    /** Image colors for cells in unloaded chunks and cells where no entry matched. */
+    private static final int COLOR_UNLOADED = 0x000000, COLOR_NO_MATCH = 0x404040;
+    
+    /** Command builder. */
+    public static void register( CommandDispatcher<CommandSource> dispatcher ) {
+        // crustheatmap <mod> <file> <field> (csv|image) [<radius>] [<resolution>]
+        final List<LiteralArgumentBuilder<CommandSource>> formats = new ArrayList<>();
+        for( Format format : Format.values() ) {
+            formats.add( CommandUtil.literal( format )
+                    .executes( ( context ) -> run( context, format, DEFAULT_RADIUS, DEFAULT_RESOLUTION ) )
+                    
+                    .then( CommandUtil.argument( "radius", IntegerArgumentType.integer( 0, MAX_RADIUS ) )
+                            .executes( ( context ) -> run( context, format,
+                                    IntegerArgumentType.getInteger( context, "radius" ), DEFAULT_RESOLUTION ) )
+                            
+                            .then( CommandUtil.argument( "resolution", IntegerArgumentType.integer( 1, MAX_RESOLUTION ) )
+                                    .executes( ( context ) -> run( context, format,
+                                            IntegerArgumentType.getInteger( context, "radius" ),
+                                            IntegerArgumentType.getInteger( context, "resolution" ) ) ) ) )
+            );
+        }
+        
+        final RequiredArgumentBuilder<CommandSource, String> fieldArg = fieldArgument();
+        for( LiteralArgumentBuilder<CommandSource> format : formats ) fieldArg.then( format );
+        
+        dispatcher.register( CommandUtil.literal( ICrustApi.MOD_ID + "heatmap" )
+                .requires( ( source ) -> source.hasPermission( CommandUtil.PERMISSION_SERVER_OP ) )
+                .then( fieldArguments( fieldArg ) )
+        );
+    }
+    
+    /** @return A new field argument, suggesting the environment list fields in the chosen config file. */
+    static RequiredArgumentBuilder<CommandSource, String> fieldArgument() {
+        return CommandUtil.argument( "field", StringArgumentType.string() )
+                .suggests( ( context, builder ) -> ISuggestionProvider.suggest( fieldKeys(
+                        StringArgumentType.getString( context, "mod" ), StringArgumentType.getString( context, "file" ) ),
+                        builder ) );
+    }
+    
+    /** @return The mod and config file arguments, followed by the given field argument. */
+    static RequiredArgumentBuilder<CommandSource, String> fieldArguments( RequiredArgumentBuilder<CommandSource, String> fieldArg ) {
+        return CommandUtil.argument( "mod", StringArgumentType.word() )
+                .suggests( ( context, builder ) -> ISuggestionProvider.suggest( modIds(), builder ) )
+                
+                .then( CommandUtil.argument( "file", StringArgumentType.string() )
+                        .suggests( ( context, builder ) -> ISuggestionProvider.suggest( fileNames(
+                                StringArgumentType.getString( context, "mod" ) ), builder ) )
+                        
+                        .then( fieldArg ) );
+    }
+    
+    /** Command implementation. */
+    private static int run( CommandContext<CommandSource> context, Format format, int radius, int resolution ) {
+        final CommandSource source = context.getSource();
+        final EnvironmentListField field = findField( context );
+        if( field == null ) {
+            CommandUtil.sendFailure( source, "heatmap.field", StringArgumentType.getString( context, "mod" ),
+                    StringArgumentType.getString( context, "file" ), StringArgumentType.getString( context, "field" ) );
+            return 0;
+        }
+        final String key = field.getKey();
+        
+        final BlockPos origin = new BlockPos( source.getPosition() );
+        final ChunkPos center = new ChunkPos( origin );
+        final int size = (radius * 2 + 1) << 4;
+        final EnvironmentHeatmap heatmap = new EnvironmentHeatmap( field.get(), source.getLevel(),
+                (center.x - radius) << 4, (center.z - radius) << 4, size, size, origin.getY(), resolution, Double.NaN );
+        
+        final File file = new File( FMLPaths.GAMEDIR.get().toFile(), "debug/" + ICrustApi.MOD_ID + "-heatmap-" +
+                new SimpleDateFormat( "yyyy-MM-dd_HH.mm.ss" ).format( new Date() ) +
+                (format == Format.CSV ? ".csv" : ".png") );
+        try {
+            if( !file.getParentFile().exists() && !file.getParentFile().mkdirs() ) {
+                throw new IOException( "Failed to create directory " + file.getParentFile() );
+            }
+            if( format == Format.CSV ) writeCsv( heatmap, file );
+            else writeImage( heatmap, file );
+        }
+        catch( IOException ex ) {
+            Crust.LOG.error( "Failed to write environment heatmap to file '{}'", ConfigUtil.toRelativePath( file ), ex );
+            CommandUtil.sendFailure( source, "heatmap.file", ConfigUtil.toRelativePath( file ) );
+            return 0;
+        }
+        
+        final int cells = heatmap.WIDTH * heatmap.LENGTH;
+        CommandUtil.sendSuccess( source, "heatmap", cells, countUnloaded( heatmap ), key, ConfigUtil.toRelativePath( file ) );
+        return cells;
+    }
+    
+    /** @return The environment list field chosen by the mod, file, and field arguments, or null if there is no such field. */
+    @Nullable
+    static EnvironmentListField findField( CommandContext<CommandSource> context ) {
+        return findField( StringArgumentType.getString( context, "mod" ), StringArgumentType.getString( context, "file" ),
+                StringArgumentType.getString( context, "field" ) );
+    }
+    
+    /** @return The environment list field with the given key, or null if there is no such field. */
+    @Nullable
+    private static EnvironmentListField findField( String modId, String fileName, String key ) {
+        final ConfigManager manager = ConfigManager.get( modId );
+        if( manager == null ) return null;
+        for( AbstractConfigFile config : manager.getConfigs() ) {
+            if( config.SPEC.NAME.equals( fileName ) ) {
+                final AbstractConfigField field = config.SPEC.getFields().get( key );
+                return field instanceof EnvironmentListField ? (EnvironmentListField) field : null;
+            }
+        }
+        return null;
+    }
+    
+    /** @return The ids of all mods with a config manager. */
+    private static List<String> modIds() {
+        final List<String> ids = new ArrayList<>();
+        for( ConfigManager manager : ConfigManager.getAll() ) ids.add( manager.MOD_ID );
+        return ids;
+    }
+    
+    /** @return The names of all config files owned by the mod, quoted since they may contain slashes. */
+    private static List<String> fileNames( String modId ) {
+        final List<String> names = new ArrayList<>();
+        final ConfigManager manager = ConfigManager.get( modId );
+        if( manager != null ) {
+            for( AbstractConfigFile config : manager.getConfigs() ) names.add( StringArgumentType.escapeIfRequired( config.SPEC.NAME ) );
+        }
+        return names;
+    }
+    
+    /** @return The keys of all environment list fields in the config file. */
+    private static List<String> fieldKeys( String modId, String fileName ) {
+        final List<String> keys = new ArrayList<>();
+        final ConfigManager manager = ConfigManager.get( modId );
+        if( manager != null ) {
+            for( AbstractConfigFile config : manager.getConfigs() ) {
+                if( !config.SPEC.NAME.equals( fileName ) ) continue;
+                for( AbstractConfigField field : config.SPEC.getFields().values() ) {
+                    if( field instanceof EnvironmentListField ) keys.add( StringArgumentType.escapeIfRequired( field.getKey() ) );
+                }
+            }
+        }
+        return keys;
+    }
+    
+    /** @return The number of heatmap cells in unloaded chunks. */
+    private static int countUnloaded( EnvironmentHeatmap heatmap ) {
+        int count = 0;
+        for( int z = 0; z < heatmap.LENGTH; z++ ) {
+            for( int x = 0; x < heatmap.WIDTH; x++ ) {
+                if( heatmap.getCellMatchIndex( x, z ) == EnvironmentHeatmap.UNLOADED ) count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Writes the heatmap as a table of values, one row per cell along the z-axis, headed by the sampled block
+     * coordinates. Cells where no entry matched are left empty.
+     */
+    private static void writeCsv( EnvironmentHeatmap heatmap, File file ) throws IOException {
+        try( PrintWriter out = new PrintWriter( file, StandardCharsets.UTF_8.name() ) ) {
+            final StringBuilder line = new StringBuilder( "z\\x" );
+            for( int x = 0; x < heatmap.WIDTH; x++ ) {
+                line.append( ',' ).append( heatmap.MIN_X + x * heatmap.RESOLUTION + heatmap.RESOLUTION / 2 );
+            }
+            out.println( line );
+            
+            for( int z = 0; z < heatmap.LENGTH; z++ ) {
+                line.setLength( 0 );
+                line.append( heatmap.MIN_Z + z * heatmap.RESOLUTION + heatmap.RESOLUTION / 2 );
+                for( int x = 0; x < heatmap.WIDTH; x++ ) {
+                    line.append( ',' );
+                    final int match = heatmap.getCellMatchIndex( x, z );
+                    if( match == EnvironmentHeatmap.UNLOADED ) line.append( "unloaded" );
+                    else if( match >= 0 ) line.append( (float) heatmap.getCellValue( x, z ) );
+                }
+                out.println( line );
+            }
+        }
+    }
+    
+    /**
+     * Writes the heatmap as an image, north up. Values are colored from blue (lowest) to red (highest); cells where no
+     * entry matched are gray and unloaded cells are black.
+     */
+    private static void writeImage( EnvironmentHeatmap heatmap, File file ) throws IOException {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for( int z = 0; z < heatmap.LENGTH; z++ ) {
+            for( int x = 0; x < heatmap.WIDTH; x++ ) {
+                if( heatmap.getCellMatchIndex( x, z ) < 0 ) continue;
+                final double value = heatmap.getCellValue( x, z );
+                min = Math.min( min, value );
+                max = Math.max( max, value );
+            }
+        }
+        
+        final int scale = Math.max( 1, MIN_IMAGE_SIZE / Math.max( heatmap.WIDTH, heatmap.LENGTH ) );
+        final BufferedImage image = new BufferedImage( heatmap.WIDTH * scale, heatmap.LENGTH * scale, BufferedImage.TYPE_INT_RGB );
+        for( int z = 0; z < heatmap.LENGTH; z++ ) {
+            for( int x = 0; x < heatmap.WIDTH; x++ ) {
+                final int match = heatmap.getCellMatchIndex( x, z );
+                final int color;
+                if( match == EnvironmentHeatmap.UNLOADED ) color = COLOR_UNLOADED;
+                else if( match < 0 ) color = COLOR_NO_MATCH;
+                else color = toColor( max > min ? (heatmap.getCellValue( x, z ) - min) / (max - min) : 0.5 );
+                
+                for( int dz = 0; dz < scale; dz++ ) {
+                    for( int dx = 0; dx < scale; dx++ ) image.setRGB( x * scale + dx, z * scale + dz, color );
+                }
+            }
+        }
+        ImageIO.write( image, "png", file );
+    }
+    
+    /** @return An RGB color for a value between 0 (blue) and 1 (red), passing through green. */
+    private static int toColor( double fraction ) {
+        final float hue = (float) ((1.0 - fraction) * 2.0 / 3.0);
+        return Color.HSBtoRGB( hue, 1.0F, 1.0F ) & 0xFFFFFF;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package fathertoast.crust.common.command.impl;
+
+import com.mojang.brigadier.CommandDispatcher;
+import fathertoast.crust.api.ICrustApi;
+import fathertoast.crust.api.config.common.ConfigUtil;
+import fathertoast.crust.api.config.common.field.FieldProfiler;
+import fathertoast.crust.common.command.CommandUtil;
+import fathertoast.crust.common.core.Crust;
+import net.minecraft.command.CommandSource;
+import net.minecraft.util.text.StringTextComponent;
+import net.minecraftforge.fml.loading.FMLPaths;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+public class CrustProfileCommand {
+    
+    /** The maximum number of fields listed in chat. The full report is always written to file. */
+    private static final int CHAT_LINES = 10;
+    
+    /** Command builder. */
+    public static void register( CommandDispatcher<CommandSource> dispatcher ) {
+        // crustprofile (start|stop|report)
+        dispatcher.register( CommandUtil.literal( ICrustApi.MOD_ID + "profile" )
+                .requires( ( source ) -> source.hasPermission( CommandUtil.PERMISSION_SERVER_OP ) )
+                .then( CommandUtil.literal( "start" )
+                        .executes( ( context ) -> runStart( context.getSource() ) ) )
+                .then( CommandUtil.literal( "stop" )
+                        .executes( ( context ) -> runStop( context.getSource() ) ) )
+                .then( CommandUtil.literal( "report" )
+                        .executes( ( context ) -> runReport( context.getSource() ) ) )
+        );
+    }
+    
+    /** Command implementation. */
+    private static int runStart( CommandSource source ) {
+        if( FieldProfiler.isEnabled() ) {
+            CommandUtil.sendFailure( source, "profile.start" );
+            return 0;
+        }
+        FieldProfiler.start();
+        CommandUtil.sendSuccess( source, "profile.start" );
+        return 1;
+    }
+    
+    /** Command implementation. */
+    private static int runStop( CommandSource source ) {
+        if( !FieldProfiler.isEnabled() ) {
+            CommandUtil.sendFailure( source, "profile.stop" );
+            return 0;
+        }
+        FieldProfiler.stop();
+        CommandUtil.sendSuccess( source, "profile.stop", String.format( Locale.ROOT, "%.2f", FieldProfiler.getSampledSeconds() ) );
+        return runReport( source );
+    }
+    
+    /** Command implementation. */
+    private static int runReport( CommandSource source ) {
+        final List<String> report = FieldProfiler.report();
+        if( report.isEmpty() ) {
+            CommandUtil.sendFailure( source, "profile.report" );
+            return 0;
+        }
+        
+        for( int i = 0; i < report.size() && i < CHAT_LINES; i++ ) {
+            source.sendSuccess( new StringTextComponent( report.get( i ) ), false );
+        }
+        
+        final File file = new File( FMLPaths.GAMEDIR.get().toFile(), "debug/" + ICrustApi.MOD_ID + "-profile-" +
+                new SimpleDateFormat( "yyyy-MM-dd_HH.mm.ss" ).format( new Date() ) + ".txt" );
+        try {
+            FieldProfiler.writeReport( file, report );
+        }
+        catch( IOException ex ) {
+            Crust.LOG.error( "Failed to write field profile to file '{}'", ConfigUtil.toRelativePath( file ), ex );
+            CommandUtil.sendFailure( source, "profile.report.file", ConfigUtil.toRelativePath( file ) );
+            return 0;
+        }
+        CommandUtil.sendSuccess( source, "profile.report", report.size(), ConfigUtil.toRelativePath( file ) );
+        return report.size(); // return the number of fields reported
+    }
+}
\ No newline at end of file
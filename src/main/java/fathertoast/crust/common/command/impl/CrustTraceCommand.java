@@ -0,0 +1,50 @@
+package fathertoast.crust.common.command.impl;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import fathertoast.crust.api.ICrustApi;
+import fathertoast.crust.api.config.common.field.EnvironmentListField;
+import fathertoast.crust.api.config.common.value.EnvironmentTrace;
+import fathertoast.crust.api.lib.EnvironmentHelper;
+import fathertoast.crust.common.command.CommandUtil;
+import net.minecraft.command.CommandSource;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.StringTextComponent;
+
+public class CrustTraceCommand {
+    
+    /** Command builder. */
+    public static void register( CommandDispatcher<CommandSource> dispatcher ) {
+        // crusttrace <mod> <file> <field>
+        dispatcher.register( CommandUtil.literal( ICrustApi.MOD_ID + "trace" )
+                .requires( ( source ) -> source.hasPermission( CommandUtil.PERMISSION_SERVER_OP ) )
+                .then( CrustHeatmapCommand.fieldArguments( CrustHeatmapCommand.fieldArgument()
+                        .executes( CrustTraceCommand::run ) ) )
+        );
+    }
+    
+    /** Command implementation. */
+    private static int run( CommandContext<CommandSource> context ) {
+        final CommandSource source = context.getSource();
+        final EnvironmentListField field = CrustHeatmapCommand.findField( context );
+        if( field == null ) {
+            CommandUtil.sendFailure( source, "trace.field", StringArgumentType.getString( context, "mod" ),
+                    StringArgumentType.getString( context, "file" ), StringArgumentType.getString( context, "field" ) );
+            return 0;
+        }
+        
+        final BlockPos pos = new BlockPos( source.getPosition() );
+        if( !EnvironmentHelper.isLoaded( source.getLevel(), pos ) ) {
+            CommandUtil.sendFailure( source, "trace.pos", field.getKey() );
+            return 0;
+        }
+        
+        final EnvironmentTrace trace = field.get().trace( source.getLevel(), pos );
+        CommandUtil.sendSuccess( source, "trace", field.getKey(), pos.getX(), pos.getY(), pos.getZ() );
+        for( String line : trace.report() ) {
+            source.sendSuccess( new StringTextComponent( line ), false );
+        }
+        return trace.ENTRIES.size(); // return the number of entries tried
+    }
+}
\ No newline at end of file
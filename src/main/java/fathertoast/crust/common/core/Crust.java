@@ -3,6 +3,8 @@ package fathertoast.crust.common.core;
 import fathertoast.crust.api.CrustPlugin;
 import fathertoast.crust.api.ICrustApi;
 import fathertoast.crust.api.ICrustPlugin;
+import fathertoast.crust.api.config.common.value.EntityClassCache;
+import fathertoast.crust.api.config.common.value.environment.ChunkFacts;
 import fathertoast.crust.api.config.common.value.environment.compat.ApocalypseDifficultyEnvironment;
 import fathertoast.crust.common.api.impl.CrustApi;
 import fathertoast.crust.common.config.CrustConfig;
@@ -94,6 +96,8 @@ public class Crust {
         INSTANCE = this;
         apiInstance = new CrustApi();
         ApocalypseDifficultyEnvironment.register( apiInstance );
+        ChunkFacts.register();
+        EntityClassCache.register();
         CrustPacketHandler.registerMessages();
         
         // Perform first-time loading of the common configs for this mod